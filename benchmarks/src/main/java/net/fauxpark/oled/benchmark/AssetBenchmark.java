@@ -0,0 +1,97 @@
+package net.fauxpark.oled.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.fauxpark.oled.Bitmap;
+import net.fauxpark.oled.Dither;
+import net.fauxpark.oled.asset.AssetPack;
+import net.fauxpark.oled.asset.AssetPackWriter;
+
+/**
+ * Benchmarks for loading a set of 32x32 icons, either by decoding PNG files or from an asset pack.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetBenchmark {
+    /**
+     * The number of icons to load.
+     */
+    private static final int ICONS = 32;
+
+    private Path directory;
+
+    private Path pack;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("oled-assets");
+        AssetPackWriter writer = new AssetPackWriter();
+
+        for(int i = 0; i < ICONS; i++) {
+            BufferedImage icon = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+
+            for(int y = 0; y < 32; y++) {
+                for(int x = 0; x < 32; x++) {
+                    icon.setRGB(x, y, ((x * y + i) & 3) == 0 ? 0xFFFFFFFF : 0);
+                }
+            }
+
+            ImageIO.write(icon, "png", directory.resolve("icon" + i + ".png").toFile());
+            writer.addImage("icon" + i, icon, Dither.NONE);
+        }
+
+        pack = directory.resolve("icons.pack");
+        writer.write(pack);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for(int i = 0; i < ICONS; i++) {
+            Files.delete(directory.resolve("icon" + i + ".png"));
+        }
+
+        Files.delete(pack);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void loadPngs(Blackhole blackhole) throws IOException {
+        for(int i = 0; i < ICONS; i++) {
+            blackhole.consume(Bitmap.fromImage(ImageIO.read(directory.resolve("icon" + i + ".png").toFile()), Dither.NONE));
+        }
+    }
+
+    @Benchmark
+    public void loadPack(Blackhole blackhole) throws IOException {
+        try(AssetPack assets = AssetPack.open(pack)) {
+            for(int i = 0; i < ICONS; i++) {
+                blackhole.consume(assets.getBitmap("icon" + i));
+            }
+        }
+    }
+}
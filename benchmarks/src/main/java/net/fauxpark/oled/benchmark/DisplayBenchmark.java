@@ -0,0 +1,113 @@
+package net.fauxpark.oled.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Benchmarks for clearing the buffer and sending it to a counting {@link MockTransport}.
+ * <br/>
+ * Besides timings, the number of bytes of pixel data and bus transfers per operation are printed after each iteration,
+ * so that changes to how much is sent show up as clearly as changes to how fast it is sent.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayBenchmark {
+    private MockTransport transport;
+
+    private SSD1306 ssd1306;
+
+    private int tick;
+
+    /**
+     * Bus usage, printed per operation at the end of each measurement iteration.
+     */
+    @State(Scope.Thread)
+    public static class BusCounters {
+        private long operations;
+
+        private long dataBytes;
+
+        private long transfers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            operations = 0;
+            dataBytes = 0;
+            transfers = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void print() {
+            if(operations > 0) {
+                System.out.printf("(bus: %.2f data bytes/op, %.2f transfers/op)%n", (double) dataBytes / operations, (double) transfers / operations);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        transport = new MockTransport();
+        ssd1306 = new SSD1306(128, 64, transport);
+        ssd1306.startup(false);
+    }
+
+    @Benchmark
+    public void clear() {
+        ssd1306.clear();
+    }
+
+    @Benchmark
+    public void display(BusCounters counters) {
+        ssd1306.display();
+        count(counters);
+    }
+
+    @Benchmark
+    public void displayDirtyPixel(BusCounters counters) {
+        ssd1306.setPixel(tick++ & 127, 20, (tick & 128) == 0);
+        ssd1306.displayDirty();
+        count(counters);
+    }
+
+    @Benchmark
+    public void displayDirtyRedraw(BusCounters counters) {
+        ssd1306.clear();
+        ssd1306.getGraphics().rectangle(0, 0, 64, 32, false);
+        ssd1306.setPixel(100, tick++ & 63, true);
+        ssd1306.displayDirty();
+        count(counters);
+    }
+
+    /**
+     * Move the transport counters into the JMH counters.
+     *
+     * @param counters The JMH counters.
+     */
+    private void count(BusCounters counters) {
+        counters.operations++;
+        counters.dataBytes += transport.getDataCount();
+        counters.transfers += transport.getTransferCount();
+        transport.resetCounters();
+    }
+}
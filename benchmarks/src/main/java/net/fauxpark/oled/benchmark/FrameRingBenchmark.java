@@ -0,0 +1,113 @@
+package net.fauxpark.oled.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fauxpark.oled.FrameRing;
+import net.fauxpark.oled.Graphics;
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Benchmarks for submitting complete frames from a render thread, through a {@link FrameRing},
+ * the asynchronous pipeline, or by sending them directly.
+ * <br/>
+ * Each operation draws a frame with a moving rectangle. For the frame ring, the average ring occupancy seen when publishing
+ * and the average latency from publishing to the frame being sent are printed after each iteration.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameRingBenchmark {
+    private SSD1306 ssd1306;
+
+    private FrameRing ring;
+
+    private int tick;
+
+    private long occupancy;
+
+    private long published;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ssd1306 = new SSD1306(128, 64, new MockTransport());
+        ssd1306.startup(false);
+        ring = new FrameRing(ssd1306, 3);
+        ring.start();
+        ssd1306.startAsync();
+        occupancy = 0;
+        published = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ring.stop();
+        ssd1306.stopAsync();
+
+        if(published > 0) {
+            System.out.printf("(ring: %.2f occupancy, %d ns average latency)%n", (double) occupancy / published, ring.getAverageLatency());
+        }
+    }
+
+    @Benchmark
+    public void ringPublish() {
+        FrameRing.Frame frame;
+
+        while((frame = ring.acquire()) == null) {
+            Thread.yield();
+        }
+
+        draw(frame.getGraphics(), frame);
+        occupancy += ring.getOccupancy();
+        published++;
+        ring.publish(frame);
+    }
+
+    @Benchmark
+    public void present() {
+        ssd1306.clear();
+        draw(ssd1306.getGraphics(), null);
+        ssd1306.present();
+    }
+
+    @Benchmark
+    public void displayDirty() {
+        ssd1306.clear();
+        draw(ssd1306.getGraphics(), null);
+        ssd1306.displayDirty();
+    }
+
+    /**
+     * Draw the next frame.
+     *
+     * @param graphics The Graphics instance to draw with.
+     * @param frame The ring frame being drawn into, if any.
+     */
+    private void draw(Graphics graphics, FrameRing.Frame frame) {
+        if(frame != null) {
+            frame.clear();
+        }
+
+        tick = (tick + 1) & 63;
+        graphics.rectangle(tick, tick / 2, 32, 16, true);
+        graphics.line(0, 63, 127, tick);
+    }
+}
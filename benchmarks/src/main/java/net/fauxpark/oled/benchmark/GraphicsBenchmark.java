@@ -0,0 +1,168 @@
+package net.fauxpark.oled.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fauxpark.oled.Bitmap;
+import net.fauxpark.oled.BlitMode;
+import net.fauxpark.oled.Dither;
+import net.fauxpark.oled.Graphics;
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.TextCache;
+import net.fauxpark.oled.font.CodePage437;
+import net.fauxpark.oled.font.Font;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Benchmarks for the drawing primitives of {@link Graphics}.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphicsBenchmark {
+    /**
+     * A line of text filling the width of the display.
+     */
+    private static final String TEXT = "The quick brown fox j";
+
+    private SSD1306 ssd1306;
+
+    private Graphics graphics;
+
+    private Graphics cachedGraphics;
+
+    private Font font;
+
+    private BufferedImage image;
+
+    private Bitmap icon;
+
+    private Bitmap maskedIcon;
+
+    @Setup
+    public void setUp() {
+        ssd1306 = new SSD1306(128, 64, new MockTransport());
+        graphics = ssd1306.getGraphics();
+        cachedGraphics = new SSD1306(128, 64, new MockTransport()).getGraphics();
+        cachedGraphics.setTextCache(new TextCache(16384));
+        font = new CodePage437();
+        image = new BufferedImage(128, 64, BufferedImage.TYPE_INT_RGB);
+
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                image.setRGB(x, y, (x * 2) << 16 | (y * 4) << 8 | (x + y));
+            }
+        }
+
+        icon = Bitmap.fromImage(image.getSubimage(0, 0, 32, 32), Dither.BAYER);
+        maskedIcon = new Bitmap(32, 32, icon.getData(), icon.getData());
+    }
+
+    @Benchmark
+    public void lineDiagonal() {
+        graphics.line(0, 0, 127, 63);
+    }
+
+    @Benchmark
+    public void lineHorizontal() {
+        graphics.line(0, 31, 127, 31);
+    }
+
+    @Benchmark
+    public void rectangle() {
+        graphics.rectangle(8, 8, 112, 48, false);
+    }
+
+    @Benchmark
+    public void rectangleFill() {
+        graphics.rectangle(0, 0, 128, 64, true);
+    }
+
+    @Benchmark
+    public void circle() {
+        graphics.circle(63, 31, 30);
+    }
+
+    @Benchmark
+    public void arc() {
+        graphics.arc(63, 31, 30, 0, 90);
+    }
+
+    @Benchmark
+    public void textLine() {
+        graphics.text(0, 0, font, TEXT);
+    }
+
+    @Benchmark
+    public void textLineUnaligned() {
+        graphics.text(0, 3, font, TEXT);
+    }
+
+    @Benchmark
+    public void textLineCached() {
+        cachedGraphics.text(0, 0, font, TEXT);
+    }
+
+    @Benchmark
+    public void textLineUnalignedCached() {
+        cachedGraphics.text(0, 3, font, TEXT);
+    }
+
+    @Benchmark
+    public void textScreen() {
+        for(int y = 0; y < 64; y += 8) {
+            graphics.text(0, y, font, TEXT);
+        }
+    }
+
+    @Benchmark
+    public void image() {
+        graphics.image(image, 0, 0, 128, 64);
+    }
+
+    @Benchmark
+    public void bitmapCopy() {
+        graphics.bitmap(icon, 48, 16, BlitMode.COPY);
+    }
+
+    @Benchmark
+    public void bitmapCopyUnaligned() {
+        graphics.bitmap(icon, 48, 13, BlitMode.COPY);
+    }
+
+    @Benchmark
+    public void bitmapMaskedUnaligned() {
+        graphics.bitmap(maskedIcon, 48, 13, BlitMode.MASKED);
+    }
+
+    @Benchmark
+    public void imageBayer() {
+        graphics.image(image, 0, 0, 128, 64, Dither.BAYER);
+    }
+
+    @Benchmark
+    public void imageFloydSteinberg() {
+        graphics.image(image, 0, 0, 128, 64, Dither.FLOYD_STEINBERG);
+    }
+
+    @Benchmark
+    public void imageAtkinson() {
+        graphics.image(image, 0, 0, 128, 64, Dither.ATKINSON);
+    }
+}
@@ -0,0 +1,26 @@
+package net.fauxpark.oled.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that allocation rates are reported alongside timings.
+ * <br/>
+ * Any of the usual JMH command line options may be given, eg. a regular expression to select benchmarks.
+ *
+ * @author fauxpark
+ */
+public class Main {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        var options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(options).run();
+    }
+}
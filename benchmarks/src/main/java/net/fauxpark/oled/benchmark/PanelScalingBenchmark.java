@@ -0,0 +1,87 @@
+package net.fauxpark.oled.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fauxpark.oled.DisplayManager;
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Benchmarks for refreshing many displays at once, each on its own bus, through a {@link DisplayManager}.
+ * <br/>
+ * Each simulated bus transfer takes 1ms, so an ideal refresh takes as long as one display's transfers however many panels there are.
+ * The bus threads are platform threads here; building with the java21 profile adds the same benchmark on virtual threads.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class PanelScalingBenchmark {
+    @Param({ "1", "4", "16", "64" })
+    public int panels;
+
+    private final List<SSD1306> displays = new ArrayList<>();
+
+    private DisplayManager manager;
+
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        manager = createManager();
+
+        for(int i = 0; i < panels; i++) {
+            MockTransport transport = new MockTransport();
+            SSD1306 ssd1306 = new SSD1306(128, 64, transport);
+            displays.add(ssd1306);
+            manager.add("bus-" + i, ssd1306);
+            transport.setLatency(1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdownAll();
+        displays.clear();
+    }
+
+    @Benchmark
+    public void displayAll() {
+        tick = (tick + 1) & 127;
+
+        // Toggle a pixel, so every display has a change to send
+        for(SSD1306 ssd1306 : displays) {
+            ssd1306.setPixel(tick, 10, !ssd1306.getPixel(tick, 10));
+        }
+
+        manager.displayAll();
+    }
+
+    /**
+     * Create the display manager driving the panels.
+     *
+     * @return A display manager.
+     */
+    protected DisplayManager createManager() {
+        return new DisplayManager();
+    }
+}
@@ -0,0 +1,61 @@
+package net.fauxpark.oled.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Benchmarks for reading and writing individual pixels of the buffer. Each operation covers the whole 128x64 display.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PixelBenchmark {
+    @Param({ "false", "true" })
+    public boolean pageLocking;
+
+    private SSD1306 ssd1306;
+
+    @Setup
+    public void setUp() {
+        ssd1306 = new SSD1306(128, 64, new MockTransport());
+        ssd1306.setPageLocking(pageLocking);
+    }
+
+    @Benchmark
+    public void setPixel() {
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                ssd1306.setPixel(x, y, ((x ^ y) & 1) == 0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void getPixel(Blackhole blackhole) {
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                blackhole.consume(ssd1306.getPixel(x, y));
+            }
+        }
+    }
+}
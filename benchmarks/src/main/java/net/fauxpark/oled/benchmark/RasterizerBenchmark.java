@@ -0,0 +1,130 @@
+package net.fauxpark.oled.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fauxpark.oled.Graphics;
+import net.fauxpark.oled.SSD1306;
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * Compares the integer line and circle rasterisers of {@link Graphics} against the floating point and trigonometric
+ * implementations they replaced, which are kept here as a baseline.
+ *
+ * @author fauxpark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterizerBenchmark {
+    private SSD1306 ssd1306;
+
+    private Graphics graphics;
+
+    @Setup
+    public void setUp() {
+        ssd1306 = new SSD1306(128, 64, new MockTransport());
+        graphics = ssd1306.getGraphics();
+    }
+
+    @Benchmark
+    public void line() {
+        graphics.line(0, 0, 127, 63);
+    }
+
+    @Benchmark
+    public void lineBaseline() {
+        baselineLine(0, 0, 127, 63);
+    }
+
+    @Benchmark
+    public void circle() {
+        graphics.circle(63, 31, 30);
+    }
+
+    @Benchmark
+    public void circleBaseline() {
+        baselineArc(63, 31, 30, 0, 360);
+    }
+
+    @Benchmark
+    public void circleFill() {
+        graphics.circle(63, 31, 30, true);
+    }
+
+    @Benchmark
+    public void arc() {
+        graphics.arc(63, 31, 30, 30, 200);
+    }
+
+    @Benchmark
+    public void arcBaseline() {
+        baselineArc(63, 31, 30, 30, 200);
+    }
+
+    /**
+     * The original line implementation, which rounds a floating point slope for every pixel.
+     */
+    private void baselineLine(int x0, int y0, int x1, int y1) {
+        int dx = x1 - x0;
+        int dy = y1 - y0;
+
+        if(Math.abs(dx) >= Math.abs(dy)) {
+            if(dx < 0) {
+                int ox = x0;
+                int oy = y0;
+                x0 = x1;
+                y0 = y1;
+                x1 = ox;
+                y1 = oy;
+                dx = x1 - x0;
+                dy = y1 - y0;
+            }
+
+            double coeff = (double) dy / (double) dx;
+
+            for(int x = 0; x <= dx; x++) {
+                ssd1306.setPixel(x + x0, y0 + (int) Math.round(x * coeff), true);
+            }
+        } else {
+            if(dy < 0) {
+                int ox = x0;
+                int oy = y0;
+                x0 = x1;
+                y0 = y1;
+                x1 = ox;
+                y1 = oy;
+                dx = x1 - x0;
+                dy = y1 - y0;
+            }
+
+            double coeff = (double) dx / (double) dy;
+
+            for(int y = 0; y <= dy; y++) {
+                ssd1306.setPixel(x0 + (int) Math.round(y * coeff), y + y0, true);
+            }
+        }
+    }
+
+    /**
+     * The original arc implementation, which evaluates sine and cosine for every degree.
+     */
+    private void baselineArc(int x, int y, int radius, int startAngle, int endAngle) {
+        for(int i = startAngle; i <= endAngle; i++) {
+            ssd1306.setPixel(x + (int) Math.round(radius * Math.sin(Math.toRadians(i))), y + (int) Math.round(radius * Math.cos(Math.toRadians(i))), true);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package net.fauxpark.oled.benchmark;
+
+import net.fauxpark.oled.DisplayManager;
+
+/**
+ * The same as {@link PanelScalingBenchmark}, with a virtual thread for each bus. Only built with the java21 profile.
+ *
+ * @author fauxpark
+ */
+public class VirtualPanelScalingBenchmark extends PanelScalingBenchmark {
+    @Override
+    protected DisplayManager createManager() {
+        return new DisplayManager(Thread.ofVirtual().factory());
+    }
+}
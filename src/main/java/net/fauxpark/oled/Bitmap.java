@@ -0,0 +1,184 @@
+package net.fauxpark.oled;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A monochrome bitmap stored in the same page-packed layout as the SSD1306 buffer, with an optional mask.
+ * <br/>
+ * Each byte holds a column of eight vertical pixels, with the topmost pixel in the least significant bit,
+ * and each page of <i>width</i> bytes covers eight rows. Bitmaps are meant to be converted once, when they are loaded,
+ * and then drawn every frame with {@link Graphics#bitmap(Bitmap, int, int, BlitMode)}, which works a byte at a time.
+ *
+ * @author fauxpark
+ */
+public class Bitmap {
+    /**
+     * The width of the bitmap in pixels.
+     */
+    private final int width;
+
+    /**
+     * The height of the bitmap in pixels.
+     */
+    private final int height;
+
+    /**
+     * The pixels of the bitmap.
+     */
+    private final byte[] data;
+
+    /**
+     * The mask of the bitmap, or null if it has no mask.
+     */
+    private final byte[] mask;
+
+    /**
+     * Bitmap constructor. Creates a blank bitmap without a mask.
+     *
+     * @param width The width of the bitmap in pixels.
+     * @param height The height of the bitmap in pixels.
+     */
+    public Bitmap(int width, int height) {
+        this(width, height, new byte[width * ((height + 7) / 8)], null);
+    }
+
+    /**
+     * Bitmap constructor.
+     *
+     * @param width The width of the bitmap in pixels.
+     * @param height The height of the bitmap in pixels.
+     * @param data The page-packed pixels of the bitmap, <i>width * ceil(height / 8)</i> bytes long. Shorter arrays will be padded.
+     * @param mask The page-packed mask of the bitmap, in the same layout as the data, or null if it has no mask.
+     */
+    public Bitmap(int width, int height, byte[] data, byte[] mask) {
+        int size = width * ((height + 7) / 8);
+        this.width = width;
+        this.height = height;
+        this.data = data.length < size ? Arrays.copyOf(data, size) : data;
+        this.mask = mask != null && mask.length < size ? Arrays.copyOf(mask, size) : mask;
+    }
+
+    /**
+     * Convert an image to a bitmap.
+     * <br/>
+     * If the image has an alpha channel, pixels that are at least half opaque are set in the mask.
+     *
+     * @param image The image to convert.
+     * @param dither The dithering mode to use.
+     *
+     * @return A bitmap of the same size as the image.
+     */
+    public static Bitmap fromImage(BufferedImage image, Dither dither) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int size = width * ((height + 7) / 8);
+        byte[] data = new byte[size];
+        byte[] mask = image.getColorModel().hasAlpha() ? new byte[size] : null;
+        ImageSampler sampler = new ImageSampler();
+        Ditherer ditherer = new Ditherer();
+        int[] line = sampler.begin(image, width, height);
+        int[] argb = new int[width];
+        ditherer.begin(dither, width);
+
+        for(int y = 0; y < height; y++) {
+            sampler.sample(y, 0, width);
+            ditherer.apply(line, 0, y, 0, width);
+            int index = (y / 8) * width;
+            int bit = 1 << (y & 7);
+
+            for(int x = 0; x < width; x++) {
+                if(line[x] >= 128) {
+                    data[index + x] |= bit;
+                }
+            }
+
+            if(mask != null) {
+                image.getRGB(0, y, width, 1, argb, 0, width);
+
+                for(int x = 0; x < width; x++) {
+                    if(argb[x] >>> 24 >= 128) {
+                        mask[index + x] |= bit;
+                    }
+                }
+            }
+        }
+
+        return new Bitmap(width, height, data, mask);
+    }
+
+    /**
+     * Get the width of the bitmap.
+     *
+     * @return The width of the bitmap in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the bitmap.
+     *
+     * @return The height of the bitmap in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the pixels of the bitmap.
+     *
+     * @return The page-packed pixels of the bitmap.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Get the mask of the bitmap.
+     *
+     * @return The page-packed mask of the bitmap, or null if it has no mask.
+     */
+    public byte[] getMask() {
+        return mask;
+    }
+
+    /**
+     * Get the state of a pixel in the bitmap.
+     *
+     * @param x The X position of the pixel.
+     * @param y The Y position of the pixel.
+     *
+     * @return False if the pixel is off or the given coordinates are out of bounds, true if the pixel is on.
+     */
+    public boolean getPixel(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+
+        return (data[x + (y / 8) * width] & (1 << (y & 7))) != 0;
+    }
+
+    /**
+     * Set a pixel in the bitmap.
+     *
+     * @param x The X position of the pixel to set.
+     * @param y The Y position of the pixel to set.
+     * @param on Whether to turn this pixel on or off.
+     *
+     * @return False if the given coordinates are out of bounds.
+     */
+    public boolean setPixel(int x, int y, boolean on) {
+        if(x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+
+        if(on) {
+            data[x + (y / 8) * width] |= 1 << (y & 7);
+        } else {
+            data[x + (y / 8) * width] &= ~(1 << (y & 7));
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package net.fauxpark.oled;
+
+/**
+ * The ways in which the pixels of a {@link Bitmap} can be combined with the pixels already in the buffer.
+ *
+ * @author fauxpark
+ * @see Graphics#bitmap(Bitmap, int, int, BlitMode)
+ */
+public enum BlitMode {
+    /**
+     * Replace every pixel covered by the bitmap.
+     */
+    COPY,
+
+    /**
+     * Turn on the pixels that are on in the bitmap, leaving the rest untouched.
+     */
+    OR,
+
+    /**
+     * Turn off the pixels that are on in the bitmap, leaving the rest untouched.
+     */
+    AND_NOT,
+
+    /**
+     * Invert the pixels that are on in the bitmap, leaving the rest untouched.
+     */
+    XOR,
+
+    /**
+     * Replace the pixels that are set in the mask of the bitmap, leaving the rest untouched.
+     * Bitmaps without a mask are copied as with {@link #COPY}.
+     */
+    MASKED
+}
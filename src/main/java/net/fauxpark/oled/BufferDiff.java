@@ -0,0 +1,64 @@
+package net.fauxpark.oled;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Helper methods for finding the bytes that differ between two display buffers.
+ * <br/>
+ * Both directions compare eight bytes at a time, so diffing a full 128x64 buffer takes 128 comparisons rather than 1024.
+ *
+ * @author fauxpark
+ */
+class BufferDiff {
+    /**
+     * A view of a byte array as longs, used to compare eight bytes at a time.
+     */
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Find the first index at which two arrays differ within a range.
+     *
+     * @param a The first array.
+     * @param b The second array.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     *
+     * @return The first differing index, or -1 if the range is identical in both arrays.
+     */
+    static int firstMismatch(byte[] a, byte[] b, int from, int to) {
+        int i = Arrays.mismatch(a, from, to, b, from, to);
+
+        return i < 0 ? -1 : from + i;
+    }
+
+    /**
+     * Find the last index at which two arrays differ within a range.
+     *
+     * @param a The first array.
+     * @param b The second array.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     *
+     * @return The last differing index, or -1 if the range is identical in both arrays.
+     */
+    static int lastMismatch(byte[] a, byte[] b, int from, int to) {
+        int i = to;
+
+        while(i - from >= 8 && (long) LONGS.get(a, i - 8) == (long) LONGS.get(b, i - 8)) {
+            i -= 8;
+        }
+
+        while(i > from) {
+            i--;
+
+            if(a[i] != b[i]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
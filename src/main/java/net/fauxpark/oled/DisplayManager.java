@@ -0,0 +1,200 @@
+package net.fauxpark.oled;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Drives several SSD1306 displays at once, grouped by the bus they are attached to.
+ * <br/>
+ * Each bus gets its own thread, so displays on different buses are refreshed in parallel,
+ * while displays sharing a bus (such as several I2C addresses, or several SPI chip selects) are refreshed one after another.
+ * The latency of {@link #displayAll()} is therefore that of the slowest bus, rather than the sum of every display.
+ * <br/>
+ * By default, each bus thread is a daemon platform thread. With many buses, the threads can instead be virtual threads
+ * by passing a factory such as <code>Thread.ofVirtual().factory()</code> on Java 21 and later. Waiting for a bus and the sleeps
+ * during a reset release the carrier thread, but the SPI and I2C transfers themselves are native calls into Pi4J,
+ * which pin it for as long as they take.
+ *
+ * @author fauxpark
+ */
+public class DisplayManager {
+    /**
+     * The displays on each bus, keyed by bus name.
+     */
+    private final Map<String, List<SSD1306>> buses = new LinkedHashMap<>();
+
+    /**
+     * The executor of each bus, keyed by bus name.
+     */
+    private final Map<String, ExecutorService> executors = new LinkedHashMap<>();
+
+    /**
+     * Creates the thread of each bus.
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * DisplayManager constructor. Each bus gets a daemon platform thread.
+     */
+    public DisplayManager() {
+        this(r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * DisplayManager constructor.
+     *
+     * @param threadFactory Creates the thread of each bus. Threads are renamed after the bus they serve.
+     */
+    public DisplayManager(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Add a display.
+     *
+     * @param bus The name of the bus the display is attached to, for example "i2c-1" or "spi-0".
+     * Displays added with the same name are never refreshed at the same time.
+     * @param ssd1306 The display to add.
+     */
+    public synchronized void add(String bus, SSD1306 ssd1306) {
+        buses.computeIfAbsent(bus, name -> new ArrayList<>()).add(ssd1306);
+        executors.computeIfAbsent(bus, name -> Executors.newSingleThreadExecutor(r -> {
+            Thread thread = threadFactory.newThread(r);
+            thread.setName("SSD1306 bus " + name);
+
+            return thread;
+        }));
+    }
+
+    /**
+     * Get the displays on a bus.
+     *
+     * @param bus The name of the bus.
+     *
+     * @return The displays added with that bus name, in the order they were added.
+     */
+    public synchronized List<SSD1306> getDisplays(String bus) {
+        return Collections.unmodifiableList(new ArrayList<>(buses.getOrDefault(bus, Collections.emptyList())));
+    }
+
+    /**
+     * Get the names of the buses.
+     *
+     * @return The names of the buses displays have been added with.
+     */
+    public synchronized List<String> getBuses() {
+        return Collections.unmodifiableList(new ArrayList<>(buses.keySet()));
+    }
+
+    /**
+     * Start up every display, waiting for them all to finish.
+     *
+     * @param externalVcc Indicates whether the displays are being driven by an external power source.
+     */
+    public void startupAll(boolean externalVcc) {
+        runAll(ssd1306 -> ssd1306.startup(externalVcc));
+    }
+
+    /**
+     * Send the changed regions of every display's buffer, waiting for them all to finish.
+     *
+     * @see SSD1306#displayDirty()
+     */
+    public void displayAll() {
+        runAll(SSD1306::displayDirty);
+    }
+
+    /**
+     * Shut down every display, waiting for them all to finish, and then stop the bus threads and remove the displays.
+     * The bus threads are stopped even if a display fails to shut down.
+     */
+    public void shutdownAll() {
+        try {
+            runAll(SSD1306::shutdown);
+        } finally {
+            synchronized(this) {
+                for(ExecutorService executor : executors.values()) {
+                    executor.shutdown();
+                }
+
+                for(ExecutorService executor : executors.values()) {
+                    try {
+                        executor.awaitTermination(1, TimeUnit.SECONDS);
+                    } catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                executors.clear();
+                buses.clear();
+            }
+        }
+    }
+
+    /**
+     * Run an action on every display, in parallel across buses and in order within each bus, and wait for it to finish.
+     * A failure on one display does not stop the others; once every bus has finished, the failures are reported together.
+     *
+     * @param action The action to run.
+     *
+     * @throws IllegalStateException If the action failed on any display. The first failure is the cause, and the rest are suppressed.
+     */
+    private void runAll(Consumer<SSD1306> action) {
+        List<Future<?>> futures = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        int count = 0;
+
+        synchronized(this) {
+            for(Map.Entry<String, List<SSD1306>> bus : buses.entrySet()) {
+                List<SSD1306> displays = new ArrayList<>(bus.getValue());
+                count += displays.size();
+                futures.add(executors.get(bus.getKey()).submit(() -> {
+                    for(SSD1306 ssd1306 : displays) {
+                        try {
+                            action.accept(ssd1306);
+                        } catch(RuntimeException e) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+        }
+
+        for(Future<?> future : futures) {
+            try {
+                future.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return;
+            } catch(ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+
+        if(!failures.isEmpty()) {
+            IllegalStateException e = new IllegalStateException(failures.size() + " of " + count + " displays failed", failures.get(0));
+
+            for(Throwable failure : failures.subList(1, failures.size())) {
+                e.addSuppressed(failure);
+            }
+
+            throw e;
+        }
+    }
+}
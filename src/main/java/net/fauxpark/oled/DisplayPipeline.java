@@ -0,0 +1,220 @@
+package net.fauxpark.oled;
+
+import java.util.Arrays;
+
+/**
+ * Sends presented frames to an SSD1306 from a dedicated thread.
+ * <br/>
+ * Frames are copied into a pending buffer when presented, then swapped into a front buffer by the flusher thread,
+ * which sends the changed regions of the front buffer while the next frame is drawn and presented.
+ *
+ * @author fauxpark
+ */
+class DisplayPipeline implements Runnable {
+    /**
+     * The SSD1306 to send frames to.
+     */
+    private final SSD1306 ssd1306;
+
+    /**
+     * The width of the display in pixels.
+     */
+    private final int width;
+
+    /**
+     * The thread sending frames to the display.
+     */
+    private final Thread thread;
+
+    /**
+     * The most recently presented frame, waiting to be sent.
+     */
+    private byte[] pending;
+
+    /**
+     * The first changed column of each page of the pending frame.
+     */
+    private int[] pendingStart;
+
+    /**
+     * The last changed column of each page of the pending frame.
+     */
+    private int[] pendingEnd;
+
+    /**
+     * The frame being sent.
+     */
+    private byte[] front;
+
+    /**
+     * The first changed column of each page of the frame being sent.
+     */
+    private int[] frontStart;
+
+    /**
+     * The last changed column of each page of the frame being sent.
+     */
+    private int[] frontEnd;
+
+    /**
+     * Indicates whether a frame is waiting to be sent.
+     */
+    private boolean ready;
+
+    /**
+     * Indicates whether the flusher thread should keep running.
+     */
+    private boolean running;
+
+    /**
+     * The failure of a frame that could not be sent, waiting to be reported by {@link #present(byte[], int[], int[])} or {@link #stop()}.
+     */
+    private RuntimeException failure;
+
+    /**
+     * DisplayPipeline constructor.
+     *
+     * @param ssd1306 The SSD1306 to send frames to.
+     * @param size The size of a frame in bytes.
+     * @param pages The number of pages in the display.
+     * @param width The width of the display in pixels.
+     */
+    DisplayPipeline(SSD1306 ssd1306, int size, int pages, int width) {
+        this.ssd1306 = ssd1306;
+        this.width = width;
+        pending = new byte[size];
+        front = new byte[size];
+        pendingStart = new int[pages];
+        pendingEnd = new int[pages];
+        frontStart = new int[pages];
+        frontEnd = new int[pages];
+        Arrays.fill(pendingStart, width);
+        Arrays.fill(pendingEnd, -1);
+        thread = new Thread(this, "SSD1306 flusher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start the flusher thread.
+     */
+    synchronized void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stop the flusher thread, waiting for any pending frame to be sent.
+     *
+     * @throws IllegalStateException If a frame could not be sent since the last failure was reported.
+     */
+    void stop() {
+        synchronized(this) {
+            running = false;
+            notifyAll();
+        }
+
+        try {
+            thread.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized(this) {
+            throwFailure();
+        }
+    }
+
+    /**
+     * Present a frame, replacing any frame that is still waiting to be sent.
+     *
+     * @param buffer The frame to present.
+     * @param start The first changed column of each page of the frame.
+     * @param end The last changed column of each page of the frame.
+     *
+     * @throws IllegalStateException If a frame could not be sent since the last failure was reported. This frame is not presented.
+     */
+    synchronized void present(byte[] buffer, int[] start, int[] end) {
+        throwFailure();
+        System.arraycopy(buffer, 0, pending, 0, pending.length);
+
+        // The changes of a superseded frame must still be sent with this one
+        for(int page = 0; page < start.length; page++) {
+            pendingStart[page] = Math.min(pendingStart[page], start[page]);
+            pendingEnd[page] = Math.max(pendingEnd[page], end[page]);
+        }
+
+        ready = true;
+        notifyAll();
+    }
+
+    @Override
+    public void run() {
+        while(true) {
+            synchronized(this) {
+                while(!ready && running) {
+                    try {
+                        wait();
+                    } catch(InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if(!ready) {
+                    return;
+                }
+
+                swap();
+                ready = false;
+            }
+
+            try {
+                ssd1306.flush(front, frontStart, frontEnd);
+            } catch(RuntimeException e) {
+                // What is on the display is now unknown, so the next frame is sent whole
+                ssd1306.invalidate();
+
+                synchronized(this) {
+                    if(failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Report the failure of a frame that could not be sent, if there is one, and forget it.
+     *
+     * @throws IllegalStateException If a frame could not be sent, with the cause of the first failure since the last one was reported.
+     */
+    private void throwFailure() {
+        if(failure != null) {
+            RuntimeException e = failure;
+            failure = null;
+
+            throw new IllegalStateException("A presented frame could not be sent", e);
+        }
+    }
+
+    /**
+     * Swap the pending and front frames, and reset the changed regions of the new pending frame.
+     */
+    private void swap() {
+        byte[] frame = front;
+        front = pending;
+        pending = frame;
+
+        int[] start = frontStart;
+        frontStart = pendingStart;
+        pendingStart = start;
+
+        int[] end = frontEnd;
+        frontEnd = pendingEnd;
+        pendingEnd = end;
+
+        Arrays.fill(pendingStart, width);
+        Arrays.fill(pendingEnd, -1);
+    }
+}
@@ -0,0 +1,32 @@
+package net.fauxpark.oled;
+
+/**
+ * The ways in which the gray levels of an image can be reduced to the on and off pixels of the display.
+ *
+ * @author fauxpark
+ * @see Graphics#image(java.awt.image.BufferedImage, int, int, int, int, Dither)
+ */
+public enum Dither {
+    /**
+     * Turn each pixel on if its luminance is at least half. This is the fastest mode, but loses all gradients.
+     */
+    NONE,
+
+    /**
+     * Compare each pixel against an 8x8 Bayer threshold matrix.
+     * This is nearly as fast as {@link #NONE}, and the pattern does not crawl between frames, which suits video.
+     */
+    BAYER,
+
+    /**
+     * Diffuse the error of each pixel to its neighbours using the Floyd-Steinberg weights, which preserves overall
+     * brightness and suits photos.
+     */
+    FLOYD_STEINBERG,
+
+    /**
+     * Diffuse three quarters of the error of each pixel using the Atkinson weights,
+     * which gives higher contrast than {@link #FLOYD_STEINBERG} at the cost of detail in very light and dark areas.
+     */
+    ATKINSON
+}
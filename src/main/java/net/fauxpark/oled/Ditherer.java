@@ -0,0 +1,184 @@
+package net.fauxpark.oled;
+
+import java.util.Arrays;
+
+/**
+ * Reduces lines of luminance values to on and off pixels, a row at a time.
+ * <br/>
+ * Error diffusion keeps the errors of the current row and the two rows below it in reusable buffers,
+ * so an image of the same width can be dithered frame after frame without allocating.
+ *
+ * @author fauxpark
+ */
+class Ditherer {
+    /**
+     * The luminance of an on pixel.
+     */
+    private static final int WHITE = 255;
+
+    /**
+     * The 8x8 Bayer matrix. Each entry <i>n</i> is the luminance threshold <i>4n + 2</i>.
+     */
+    private static final int[] BAYER = {
+         0, 32,  8, 40,  2, 34, 10, 42,
+        48, 16, 56, 24, 50, 18, 58, 26,
+        12, 44,  4, 36, 14, 46,  6, 38,
+        60, 28, 52, 20, 62, 30, 54, 22,
+         3, 35, 11, 43,  1, 33,  9, 41,
+        51, 19, 59, 27, 49, 17, 57, 25,
+        15, 47,  7, 39, 13, 45,  5, 37,
+        63, 31, 55, 23, 61, 29, 53, 21
+    };
+
+    /**
+     * The number of padding entries on each side of an error row, so that neighbours can be written without bounds checks.
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * The dithering mode in use.
+     */
+    private Dither dither = Dither.NONE;
+
+    /**
+     * The accumulated error of the current row.
+     */
+    private int[] current = new int[0];
+
+    /**
+     * The accumulated error of the row below the current one.
+     */
+    private int[] next = new int[0];
+
+    /**
+     * The accumulated error of the row two below the current one.
+     */
+    private int[] after = new int[0];
+
+    /**
+     * Prepare to dither an image.
+     *
+     * @param dither The dithering mode to use.
+     * @param width The width of the image in pixels.
+     */
+    void begin(Dither dither, int width) {
+        this.dither = dither;
+
+        if(dither == Dither.FLOYD_STEINBERG || dither == Dither.ATKINSON) {
+            if(current.length < width + PADDING * 2) {
+                current = new int[width + PADDING * 2];
+                next = new int[width + PADDING * 2];
+                after = new int[width + PADDING * 2];
+            } else {
+                Arrays.fill(current, 0);
+                Arrays.fill(next, 0);
+                Arrays.fill(after, 0);
+            }
+        }
+    }
+
+    /**
+     * Dither a row of luminance values in place. Each value in the range is replaced with 0 or 255.
+     * Rows must be passed in order from top to bottom.
+     *
+     * @param line The luminance of each column of the row.
+     * @param x The X position of the first column of the row on the display.
+     * @param y The Y position of the row on the display.
+     * @param from The first column to dither, inclusive.
+     * @param to The last column to dither, exclusive.
+     */
+    void apply(int[] line, int x, int y, int from, int to) {
+        switch(dither) {
+            case BAYER:
+                bayer(line, x, y, from, to);
+
+                break;
+            case FLOYD_STEINBERG:
+                floydSteinberg(line, from, to);
+
+                break;
+            case ATKINSON:
+                atkinson(line, from, to);
+
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Dither a row with the Bayer matrix, anchored to the display so that the pattern stays put as images move.
+     *
+     * @param line The luminance of each column of the row.
+     * @param x The X position of the first column of the row on the display.
+     * @param y The Y position of the row on the display.
+     * @param from The first column to dither, inclusive.
+     * @param to The last column to dither, exclusive.
+     */
+    private void bayer(int[] line, int x, int y, int from, int to) {
+        int row = (y & 7) * 8;
+
+        for(int col = from; col < to; col++) {
+            line[col] = line[col] >= BAYER[row + ((x + col) & 7)] * 4 + 2 ? WHITE : 0;
+        }
+    }
+
+    /**
+     * Dither a row with Floyd-Steinberg error diffusion. Errors are accumulated in sixteenths.
+     *
+     * @param line The luminance of each column of the row.
+     * @param from The first column to dither, inclusive.
+     * @param to The last column to dither, exclusive.
+     */
+    private void floydSteinberg(int[] line, int from, int to) {
+        for(int col = from; col < to; col++) {
+            int i = col + PADDING;
+            int value = line[col] + ((current[i] + 8) >> 4);
+            int out = value >= WHITE / 2 + 1 ? WHITE : 0;
+            int error = value - out;
+            line[col] = out;
+            current[i + 1] += error * 7;
+            next[i - 1] += error * 3;
+            next[i] += error * 5;
+            next[i + 1] += error;
+        }
+
+        advance();
+    }
+
+    /**
+     * Dither a row with Atkinson error diffusion. Errors are accumulated in eighths.
+     *
+     * @param line The luminance of each column of the row.
+     * @param from The first column to dither, inclusive.
+     * @param to The last column to dither, exclusive.
+     */
+    private void atkinson(int[] line, int from, int to) {
+        for(int col = from; col < to; col++) {
+            int i = col + PADDING;
+            int value = line[col] + ((current[i] + 4) >> 3);
+            int out = value >= WHITE / 2 + 1 ? WHITE : 0;
+            int error = value - out;
+            line[col] = out;
+            current[i + 1] += error;
+            current[i + 2] += error;
+            next[i - 1] += error;
+            next[i] += error;
+            next[i + 1] += error;
+            after[i] += error;
+        }
+
+        advance();
+    }
+
+    /**
+     * Move the error rows up by one, clearing the new bottom row.
+     */
+    private void advance() {
+        int[] row = current;
+        current = next;
+        next = after;
+        after = row;
+        Arrays.fill(after, 0);
+    }
+}
@@ -0,0 +1,155 @@
+package net.fauxpark.oled;
+
+/**
+ * Plans the address windows used to send the changed regions of a display buffer.
+ * <br/>
+ * Each page of the buffer has a single dirty column range. Consecutive dirty pages are merged into one window
+ * when the extra data bytes this costs are fewer than the overhead of addressing another window;
+ * otherwise they are sent as separate windows.
+ *
+ * @author fauxpark
+ */
+class FlushPlanner {
+    /**
+     * The number of pages in the display.
+     */
+    private final int pages;
+
+    /**
+     * The planned windows, as consecutive groups of start column, end column, start page and end page.
+     */
+    private final int[] windows;
+
+    /**
+     * The number of planned windows.
+     */
+    private int count;
+
+    /**
+     * FlushPlanner constructor.
+     *
+     * @param pages The number of pages in the display.
+     */
+    FlushPlanner(int pages) {
+        this.pages = pages;
+        windows = new int[pages * 4];
+    }
+
+    /**
+     * Plan the windows for the given dirty column ranges.
+     *
+     * @param dirtyStart The first dirty column of each page. A page is clean if this is greater than its last dirty column.
+     * @param dirtyEnd The last dirty column of each page.
+     * @param overhead The cost of addressing a window, in data bytes.
+     *
+     * @return The number of planned windows.
+     */
+    int plan(int[] dirtyStart, int[] dirtyEnd, int overhead) {
+        count = 0;
+        int startCol = 0;
+        int endCol = -1;
+        int startPage = -1;
+        int endPage = -1;
+
+        for(int page = 0; page < pages; page++) {
+            int start = dirtyStart[page];
+            int end = dirtyEnd[page];
+
+            if(start > end) {
+                continue;
+            }
+
+            if(startPage < 0) {
+                startCol = start;
+                endCol = end;
+                startPage = page;
+                endPage = page;
+
+                continue;
+            }
+
+            int mergedStartCol = Math.min(startCol, start);
+            int mergedEndCol = Math.max(endCol, end);
+            int merged = (mergedEndCol - mergedStartCol + 1) * (page - startPage + 1);
+            int separate = (endCol - startCol + 1) * (endPage - startPage + 1) + overhead + (end - start + 1);
+
+            if(merged <= separate) {
+                startCol = mergedStartCol;
+                endCol = mergedEndCol;
+                endPage = page;
+            } else {
+                add(startCol, endCol, startPage, endPage);
+                startCol = start;
+                endCol = end;
+                startPage = page;
+                endPage = page;
+            }
+        }
+
+        if(startPage >= 0) {
+            add(startCol, endCol, startPage, endPage);
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the start column of a planned window.
+     *
+     * @param window The index of the window.
+     *
+     * @return The first column of the window.
+     */
+    int getStartCol(int window) {
+        return windows[window * 4];
+    }
+
+    /**
+     * Get the end column of a planned window.
+     *
+     * @param window The index of the window.
+     *
+     * @return The last column of the window.
+     */
+    int getEndCol(int window) {
+        return windows[window * 4 + 1];
+    }
+
+    /**
+     * Get the start page of a planned window.
+     *
+     * @param window The index of the window.
+     *
+     * @return The first page of the window.
+     */
+    int getStartPage(int window) {
+        return windows[window * 4 + 2];
+    }
+
+    /**
+     * Get the end page of a planned window.
+     *
+     * @param window The index of the window.
+     *
+     * @return The last page of the window.
+     */
+    int getEndPage(int window) {
+        return windows[window * 4 + 3];
+    }
+
+    /**
+     * Add a window to the plan.
+     *
+     * @param startCol The first column of the window.
+     * @param endCol The last column of the window.
+     * @param startPage The first page of the window.
+     * @param endPage The last page of the window.
+     */
+    private void add(int startCol, int endCol, int startPage, int endPage) {
+        windows[count * 4] = startCol;
+        windows[count * 4 + 1] = endCol;
+        windows[count * 4 + 2] = startPage;
+        windows[count * 4 + 3] = endPage;
+        count++;
+    }
+}
@@ -0,0 +1,510 @@
+package net.fauxpark.oled;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A ring of preallocated frames, passed from render threads to a flusher thread which sends them to an SSD1306.
+ * <br/>
+ * Each frame is page-packed in the same way as the display buffer. Render threads {@link #acquire()} a free frame, draw into it,
+ * and {@link #publish(Frame)} it; the flusher sends published frames in the order they were published, then frees them.
+ * Ownership of each frame is handed over by compare-and-set on its state, so neither side ever blocks the other,
+ * and nothing is allocated per frame. Like {@link SSD1306#displayDirty()}, only the bytes that differ from the previous frame are sent.
+ * <br/>
+ * This is intended for producers of complete frames, such as video or animations. The display buffer itself is not used.
+ *
+ * @author fauxpark
+ */
+public class FrameRing {
+    /**
+     * The state of a frame that can be acquired.
+     */
+    private static final int FREE = 0;
+
+    /**
+     * The state of a frame being drawn by a render thread.
+     */
+    private static final int RENDERING = 1;
+
+    /**
+     * The state of a frame waiting to be sent.
+     */
+    private static final int READY = 2;
+
+    /**
+     * The state of a frame being sent by the flusher thread.
+     */
+    private static final int FLUSHING = 3;
+
+    /**
+     * The number of times the flusher thread checks for a ready frame before parking. Spinning is pointless on a single core.
+     */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 200 : 0;
+
+    /**
+     * The SSD1306 to send frames to.
+     */
+    private final SSD1306 ssd1306;
+
+    /**
+     * The frames.
+     */
+    private final Frame[] frames;
+
+    /**
+     * The state of each frame.
+     */
+    private final AtomicIntegerArray states;
+
+    /**
+     * The order in which each ready frame was published.
+     */
+    private final long[] sequences;
+
+    /**
+     * The time at which each ready frame was published, in nanoseconds.
+     */
+    private final long[] publishTimes;
+
+    /**
+     * The first column of each page to send, reset by every flush.
+     */
+    private final int[] start;
+
+    /**
+     * The last column of each page to send, reset by every flush.
+     */
+    private final int[] end;
+
+    /**
+     * The next publish sequence number.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The sequence number of the next frame to send. Only used by the flusher thread.
+     */
+    private long nextSequence;
+
+    /**
+     * The number of frames published since creation or the last call to {@link #resetCounters()}.
+     */
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    /**
+     * The number of calls to {@link #acquire()} that found no free frame since creation or the last call to {@link #resetCounters()}.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * The number of frames sent since creation or the last call to {@link #resetCounters()}. Only written by the flusher thread.
+     */
+    private volatile long flushedCount;
+
+    /**
+     * The number of frames that could not be sent since creation or the last call to {@link #resetCounters()}. Only written by the flusher thread.
+     */
+    private volatile long failedCount;
+
+    /**
+     * The failure of the last frame that could not be sent, if any.
+     */
+    private volatile RuntimeException lastFailure;
+
+    /**
+     * The total latency of the frames sent, in nanoseconds. Only written by the flusher thread.
+     */
+    private volatile long totalLatency;
+
+    /**
+     * The highest latency of the frames sent, in nanoseconds. Only written by the flusher thread.
+     */
+    private volatile long maxLatency;
+
+    /**
+     * The latency of the last frame sent, in nanoseconds. Only written by the flusher thread.
+     */
+    private volatile long lastLatency;
+
+    /**
+     * The flusher thread, if it is running.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Indicates whether the flusher thread should keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * Indicates whether the flusher thread is about to park, or parked, so that publishing must wake it.
+     */
+    private volatile boolean waiting;
+
+    /**
+     * FrameRing constructor.
+     *
+     * @param ssd1306 The SSD1306 to send frames to.
+     * @param capacity The number of frames in the ring. At least two are needed for drawing and sending to overlap.
+     */
+    public FrameRing(SSD1306 ssd1306, int capacity) {
+        this.ssd1306 = ssd1306;
+        capacity = Math.max(capacity, 1);
+        frames = new Frame[capacity];
+        states = new AtomicIntegerArray(capacity);
+        sequences = new long[capacity];
+        publishTimes = new long[capacity];
+        start = new int[ssd1306.getHeight() / 8];
+        end = new int[ssd1306.getHeight() / 8];
+
+        for(int i = 0; i < capacity; i++) {
+            frames[i] = new Frame(i, ssd1306.getWidth(), ssd1306.getHeight());
+        }
+    }
+
+    /**
+     * Start the flusher thread.
+     */
+    public synchronized void start() {
+        if(thread == null) {
+            running = true;
+            thread = new Thread(this::flushLoop, "SSD1306 frame ring");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the flusher thread, waiting for every published frame to be sent.
+     */
+    public synchronized void stop() {
+        Thread thread = this.thread;
+
+        if(thread == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(thread);
+
+        try {
+            thread.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.thread = null;
+    }
+
+    /**
+     * Acquire a free frame to draw into.
+     * <br/>
+     * The frame still holds whatever was last drawn into it, and belongs to the calling thread until it is published or discarded.
+     *
+     * @return A free frame, or null if every frame is being drawn, waiting to be sent or being sent.
+     */
+    public Frame acquire() {
+        for(int i = 0; i < frames.length; i++) {
+            if(states.get(i) == FREE && states.compareAndSet(i, FREE, RENDERING)) {
+                return frames[i];
+            }
+        }
+
+        droppedCount.incrementAndGet();
+
+        return null;
+    }
+
+    /**
+     * Publish a frame, queueing it to be sent after every frame published before it.
+     *
+     * @param frame The frame to publish, which must have been acquired by the calling thread.
+     */
+    public void publish(Frame frame) {
+        int i = frame.index;
+
+        // Only the thread that acquired the frame may move it on from rendering
+        if(states.get(i) != RENDERING) {
+            return;
+        }
+
+        // Taking the sequence number is what orders the frame; the flusher waits for each number in turn,
+        // so a frame that becomes ready late is still sent before those published after it
+        publishTimes[i] = System.nanoTime();
+        sequences[i] = sequence.getAndIncrement();
+        states.set(i, READY);
+        publishedCount.incrementAndGet();
+
+        if(waiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Return a frame to the ring without sending it.
+     *
+     * @param frame The frame to discard, which must have been acquired by the calling thread.
+     */
+    public void discard(Frame frame) {
+        states.compareAndSet(frame.index, RENDERING, FREE);
+    }
+
+    /**
+     * Send published frames in order until stopped, waiting for the next one whenever none are ready.
+     */
+    private void flushLoop() {
+        while(true) {
+            int i = awaitReady();
+
+            if(i < 0) {
+                return;
+            }
+
+            // Complete frames are sent whole, and narrowed down to what differs from the previous frame by the flush
+            Arrays.fill(start, 0);
+            Arrays.fill(end, ssd1306.getWidth() - 1);
+
+            try {
+                ssd1306.flush(frames[i].getBuffer(), start, end);
+            } catch(RuntimeException e) {
+                // The display may have been left part way through the frame, so the next one is sent whole
+                ssd1306.invalidate();
+                states.set(i, FREE);
+                lastFailure = e;
+                failedCount++;
+
+                continue;
+            }
+
+            long latency = System.nanoTime() - publishTimes[i];
+            states.set(i, FREE);
+            lastLatency = latency;
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+            flushedCount++;
+        }
+    }
+
+    /**
+     * Wait for the next frame in publish order to be ready, spinning briefly before parking, and take it for sending.
+     *
+     * @return The index of the frame, or -1 if the flusher has been stopped and no frame is ready.
+     */
+    private int awaitReady() {
+        for(int spin = 0; spin < SPINS; spin++) {
+            int i = nextReady();
+
+            if(i >= 0) {
+                return i;
+            }
+
+            Thread.onSpinWait();
+        }
+
+        while(true) {
+            // Publishing sets the frame state before checking this flag, so one side always sees the other
+            waiting = true;
+            int i = nextReady();
+
+            if(i >= 0 || !running) {
+                waiting = false;
+
+                return i;
+            }
+
+            LockSupport.park(this);
+            waiting = false;
+        }
+    }
+
+    /**
+     * Find the frame with the next sequence number, and take it for sending if it is ready.
+     *
+     * @return The index of the frame, or -1 if it is not ready yet.
+     */
+    private int nextReady() {
+        for(int i = 0; i < frames.length; i++) {
+            if(states.get(i) == READY && sequences[i] == nextSequence) {
+                states.set(i, FLUSHING);
+                nextSequence++;
+
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the number of frames in the ring.
+     *
+     * @return The capacity of the ring.
+     */
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    /**
+     * Get the number of frames that have been published and not yet sent.
+     *
+     * @return The number of frames waiting to be sent or being sent.
+     */
+    public int getOccupancy() {
+        int occupancy = 0;
+
+        for(int i = 0; i < frames.length; i++) {
+            int state = states.get(i);
+
+            if(state == READY || state == FLUSHING) {
+                occupancy++;
+            }
+        }
+
+        return occupancy;
+    }
+
+    /**
+     * Get the number of frames published.
+     *
+     * @return The number of frames published since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * Get the number of frames sent.
+     *
+     * @return The number of frames sent since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getFlushedCount() {
+        return flushedCount;
+    }
+
+    /**
+     * Get the number of frames that could not be sent. These are not included in {@link #getFlushedCount()} or the latencies.
+     *
+     * @return The number of frames that could not be sent since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Get the failure of the last frame that could not be sent.
+     * <br/>
+     * The flusher keeps running after a failure, so that a transient bus error does not stop later frames from being sent.
+     *
+     * @return The exception thrown while sending the last failed frame, or null if no frame has failed.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Get the number of failed acquisitions.
+     *
+     * @return The number of calls to {@link #acquire()} that returned null since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Get the latency of the last frame sent.
+     *
+     * @return The time between the last frame being published and it being sent, in nanoseconds.
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Get the average latency of the frames sent.
+     *
+     * @return The average time between a frame being published and it being sent, in nanoseconds,
+     * since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getAverageLatency() {
+        long flushed = flushedCount;
+
+        return flushed == 0 ? 0 : totalLatency / flushed;
+    }
+
+    /**
+     * Get the highest latency of the frames sent.
+     *
+     * @return The longest time between a frame being published and it being sent, in nanoseconds,
+     * since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * Reset the counters. This should not be called while frames are being sent.
+     */
+    public void resetCounters() {
+        publishedCount.set(0);
+        droppedCount.set(0);
+        flushedCount = 0;
+        failedCount = 0;
+        totalLatency = 0;
+        maxLatency = 0;
+        lastLatency = 0;
+    }
+
+    /**
+     * A frame in a {@link FrameRing}.
+     */
+    public static final class Frame {
+        /**
+         * The index of the frame in the ring.
+         */
+        private final int index;
+
+        /**
+         * The offscreen surface holding the frame.
+         */
+        private final SSD1306 canvas;
+
+        /**
+         * Frame constructor.
+         *
+         * @param index The index of the frame in the ring.
+         * @param width The width of the frame in pixels.
+         * @param height The height of the frame in pixels.
+         */
+        Frame(int index, int width, int height) {
+            this.index = index;
+            canvas = new SSD1306(width, height);
+        }
+
+        /**
+         * Get the frame buffer, laid out in the same way as the display buffer.
+         *
+         * @return The frame buffer.
+         */
+        public byte[] getBuffer() {
+            return canvas.getBuffer();
+        }
+
+        /**
+         * Get the Graphics instance for drawing into the frame.
+         *
+         * @return The Graphics instance.
+         */
+        public Graphics getGraphics() {
+            return canvas.getGraphics();
+        }
+
+        /**
+         * Clear the frame.
+         */
+        public void clear() {
+            canvas.clear();
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package net.fauxpark.oled;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.Raster;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import net.fauxpark.oled.font.Font;
 
@@ -12,11 +18,56 @@ import net.fauxpark.oled.font.Font;
  * @author fauxpark
  */
 public class Graphics {
+    /**
+     * The fixed point scale of the direction vectors used to clip arcs.
+     */
+    private static final long ARC_SCALE = 1 << 16;
+
+    /**
+     * The luminance at or above which an image pixel is turned on.
+     */
+    private static final int THRESHOLD = 128;
+
     /**
      * The SSD1306 OLED display.
      */
     private final SSD1306 ssd1306;
 
+    /**
+     * The character set encoders used by fonts, keyed by character set name.
+     */
+    private final Map<String, CharsetEncoder> encoders = new HashMap<>();
+
+    /**
+     * A reusable buffer for encoded text.
+     */
+    private ByteBuffer encoded = ByteBuffer.allocate(64);
+
+    /**
+     * The reader used to convert images, which keeps its scratch buffers between calls.
+     */
+    private final ImageSampler imageSampler = new ImageSampler();
+
+    /**
+     * The ditherer used to convert images, which keeps its error buffers between calls.
+     */
+    private final Ditherer ditherer = new Ditherer();
+
+    /**
+     * The font whose glyph data was most recently used.
+     */
+    private Font lastFont;
+
+    /**
+     * The packed glyph data of the font most recently used, kept for fonts that pack it on every call.
+     */
+    private byte[] lastGlyphData;
+
+    /**
+     * The cache of rendered text, or null if text is not cached.
+     */
+    private TextCache textCache;
+
     /**
      * Graphics constructor.
      *
@@ -26,8 +77,33 @@ public class Graphics {
         this.ssd1306 = ssd1306;
     }
 
+    /**
+     * Get the text cache.
+     *
+     * @return The cache of rendered text, or null if text is not cached.
+     */
+    public TextCache getTextCache() {
+        return textCache;
+    }
+
+    /**
+     * Set the text cache.
+     * <br/>
+     * When a cache is set, {@link #text(int, int, Font, String)} renders each string once per font and vertical phase,
+     * and later draws of the same string are merged into the buffer from the cache.
+     *
+     * @param textCache The cache of rendered text to use, or null to stop caching text.
+     */
+    public void setTextCache(TextCache textCache) {
+        this.textCache = textCache;
+    }
+
     /**
      * Draw text onto the display.
+     * <br/>
+     * Glyph columns are written into the buffer a byte at a time when Y is a multiple of 8,
+     * and otherwise shifted across the two (or more, for tall fonts) pages they overlap.
+     * If a {@link TextCache} is set, the rendered columns are taken from it instead.
      *
      * @param x The X position to start drawing at.
      * @param y The Y position to start drawing at.
@@ -35,31 +111,146 @@ public class Graphics {
      * @param text The text to draw.
      */
     public void text(int x, int y, Font font, String text) {
-        int rows = font.getRows();
-        int cols = font.getColumns();
-        int[] glyphs = font.getGlyphs();
-        byte[] bytes = text.getBytes(Charset.forName(font.getName()));
+        lock(y, y + font.getRows() - 1);
+
+        try {
+            if(textCache != null) {
+                cachedText(x, y, font, text);
+
+                return;
+            }
+
+            int rows = font.getRows();
+            int cols = font.getColumns();
+            int bytesPerColumn = font.getBytesPerColumn();
+            byte[] glyphs = glyphData(font);
+            ByteBuffer bytes = encode(font, text);
+
+            byte[] buffer = ssd1306.getBuffer();
+            int width = ssd1306.getWidth();
+            int pages = ssd1306.getHeight() / 8;
+            int page = Math.floorDiv(y, 8);
+            int shift = Math.floorMod(y, 8);
+            int spanned = (shift + rows + 7) / 8;
+            long keep = ((1L << rows) - 1) << shift;
+            boolean aligned = shift == 0 && rows == 8 && page >= 0 && page < pages;
+            int startX = x;
 
-        for(int i = 0; i < text.length(); i++) {
-            int p = (bytes[i] & 0xFF) * cols;
+            for(int i = 0; i < bytes.limit(); i++) {
+                int p = font.getGlyphOffset(bytes.get(i) & 0xFF);
 
-            for(int col = 0; col < cols; col++) {
-                int mask = glyphs[p++];
+                for(int col = 0; col < cols; col++, x++, p += bytesPerColumn) {
+                    if(x < 0 || x >= width) {
+                        continue;
+                    }
 
-                for(int row = 0; row < rows; row++) {
-                    ssd1306.setPixel(x, y + row, (mask & 1) == 1);
-                    mask >>= 1;
+                    if(aligned) {
+                        buffer[page * width + x] = glyphs[p];
+
+                        continue;
+                    }
+
+                    long bits = (column(glyphs, p, bytesPerColumn) << shift) & keep;
+
+                    for(int k = 0; k < spanned; k++) {
+                        if(page + k >= 0 && page + k < pages) {
+                            int index = (page + k) * width + x;
+                            buffer[index] = (byte) ((buffer[index] & ~(keep >>> (k * 8))) | (bits >>> (k * 8)));
+                        }
+                    }
                 }
 
                 x++;
             }
 
+            markDirty(startX, y, x - 1, y + rows - 1);
+        } finally {
+            unlock(y, y + font.getRows() - 1);
+        }
+    }
+
+    /**
+     * Draw text onto the display from the text cache, rendering it into the cache first if it is not there.
+     *
+     * @param x The X position to start drawing at.
+     * @param y The Y position to start drawing at.
+     * @param font The font to use.
+     * @param text The text to draw.
+     */
+    private void cachedText(int x, int y, Font font, String text) {
+        int shift = Math.floorMod(y, 8);
+        TextCache.Entry entry = textCache.get(font, text, shift);
+
+        if(entry == null) {
+            entry = render(font, glyphData(font), text, shift);
+            textCache.put(font, text, shift, entry);
+        }
+
+        byte[] buffer = ssd1306.getBuffer();
+        int width = ssd1306.getWidth();
+        int pages = ssd1306.getHeight() / 8;
+        int page = Math.floorDiv(y, 8);
+        int from = Math.max(0, -x);
+        int to = Math.min(entry.width, width - x);
+
+        for(int k = 0; k < entry.pages; k++) {
+            if(page + k < 0 || page + k >= pages) {
+                continue;
+            }
+
+            int index = (page + k) * width + x;
+            int offset = k * entry.width;
+
+            for(int col = from; col < to; col++) {
+                buffer[index + col] = (byte) ((buffer[index + col] & ~entry.masks[offset + col]) | entry.bits[offset + col]);
+            }
+        }
+
+        markDirty(x, y, x + entry.width - 1, y + font.getRows() - 1);
+    }
+
+    /**
+     * Render text into a new cache entry.
+     *
+     * @param font The font to use.
+     * @param glyphs The packed glyph data of the font.
+     * @param text The text to render.
+     * @param shift The vertical phase to render the text at, from 0 to 7.
+     *
+     * @return The rendered text.
+     */
+    private TextCache.Entry render(Font font, byte[] glyphs, String text, int shift) {
+        int rows = font.getRows();
+        int cols = font.getColumns();
+        int bytesPerColumn = font.getBytesPerColumn();
+        ByteBuffer bytes = encode(font, text);
+        long keep = ((1L << rows) - 1) << shift;
+        TextCache.Entry entry = new TextCache.Entry(bytes.limit() * (cols + 1), (shift + rows + 7) / 8);
+        int x = 0;
+
+        for(int i = 0; i < bytes.limit(); i++) {
+            int p = font.getGlyphOffset(bytes.get(i) & 0xFF);
+
+            for(int col = 0; col < cols; col++, x++, p += bytesPerColumn) {
+                long bits = (column(glyphs, p, bytesPerColumn) << shift) & keep;
+
+                for(int k = 0; k < entry.pages; k++) {
+                    entry.bits[k * entry.width + x] = (byte) (bits >>> (k * 8));
+                    entry.masks[k * entry.width + x] = (byte) (keep >>> (k * 8));
+                }
+            }
+
             x++;
         }
+
+        return entry;
     }
 
     /**
      * Draw an image onto the display.
+     * <br/>
+     * The image is scaled with nearest neighbour sampling, and each pixel is turned on if its luminance is at least half.
+     * Only the rows and columns that land on the display are read.
      *
      * @param image The image to draw.
      * @param x The X position of the image.
@@ -68,19 +259,140 @@ public class Graphics {
      * @param height The height to resize the image to.
      */
     public void image(BufferedImage image, int x, int y, int width, int height) {
-        BufferedImage mono = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
-        mono.createGraphics().drawImage(image, 0, 0, width, height, null);
-        Raster r = mono.getRaster();
+        image(image, x, y, width, height, Dither.NONE);
+    }
 
-        for(int i = 0; i < height; i++) {
-            for(int j = 0; j < width; j++) {
-                ssd1306.setPixel(x + j, y + i, r.getSample(j, i, 0) > 0);
+    /**
+     * Draw an image onto the display, dithering it to preserve gradients.
+     * <br/>
+     * The image is scaled with nearest neighbour sampling, and each row is dithered as it is read.
+     * Only the rows and columns that land on the display are read and dithered.
+     *
+     * @param image The image to draw.
+     * @param x The X position of the image.
+     * @param y The Y position of the image.
+     * @param width The width to resize the image to.
+     * @param height The height to resize the image to.
+     * @param dither The dithering mode to use.
+     */
+    public void image(BufferedImage image, int x, int y, int width, int height, Dither dither) {
+        lock(y, y + height - 1);
+
+        try {
+            byte[] buffer = ssd1306.getBuffer();
+            int displayWidth = ssd1306.getWidth();
+            int fromX = Math.max(0, -x);
+            int toX = Math.min(width, displayWidth - x);
+            int fromY = Math.max(0, -y);
+            int toY = Math.min(height, ssd1306.getHeight() - y);
+
+            if(fromX >= toX || fromY >= toY) {
+                return;
             }
+
+            int[] line = imageSampler.begin(image, width, height);
+
+            try {
+                ditherer.begin(dither, width);
+
+                for(int row = fromY; row < toY; row++) {
+                    imageSampler.sample(row, fromX, toX);
+                    ditherer.apply(line, x, y + row, fromX, toX);
+                    int index = ((y + row) / 8) * displayWidth + x;
+                    int bit = 1 << ((y + row) & 7);
+
+                    for(int col = fromX; col < toX; col++) {
+                        if(line[col] >= THRESHOLD) {
+                            buffer[index + col] |= bit;
+                        } else {
+                            buffer[index + col] &= ~bit;
+                        }
+                    }
+                }
+            } finally {
+                imageSampler.end();
+            }
+
+            markDirty(x, y, x + width - 1, y + height - 1);
+        } finally {
+            unlock(y, y + height - 1);
+        }
+    }
+
+    /**
+     * Draw a bitmap onto the display.
+     * <br/>
+     * Each column of each page of the bitmap is combined with the buffer a byte at a time.
+     * If Y is not a multiple of 8, the byte is shifted and split across the two pages it overlaps.
+     * Whole pages copied to an aligned position go through {@link System#arraycopy(Object, int, Object, int, int)}.
+     *
+     * @param bitmap The bitmap to draw.
+     * @param x The X position of the bitmap.
+     * @param y The Y position of the bitmap.
+     * @param mode How to combine the bitmap with the pixels already on the display.
+     */
+    public void bitmap(Bitmap bitmap, int x, int y, BlitMode mode) {
+        lock(y, y + bitmap.getHeight() - 1);
+
+        try {
+            byte[] buffer = ssd1306.getBuffer();
+            int width = ssd1306.getWidth();
+            int pages = ssd1306.getHeight() / 8;
+            int bitmapWidth = bitmap.getWidth();
+            int bitmapHeight = bitmap.getHeight();
+            byte[] data = bitmap.getData();
+            byte[] mask = mode == BlitMode.MASKED ? bitmap.getMask() : null;
+            int from = Math.max(0, -x);
+            int to = Math.min(bitmapWidth, width - x);
+            int page = Math.floorDiv(y, 8);
+            int shift = Math.floorMod(y, 8);
+
+            if(from >= to) {
+                return;
+            }
+
+            for(int k = 0; k < (bitmapHeight + 7) / 8; k++) {
+                int low = page + k;
+                int high = low + 1;
+                int coverage = k * 8 + 8 <= bitmapHeight ? 0xFF : (1 << (bitmapHeight - k * 8)) - 1;
+                int offset = k * bitmapWidth;
+                boolean lowVisible = low >= 0 && low < pages;
+                boolean highVisible = shift != 0 && high >= 0 && high < pages;
+
+                if(mask == null && (mode == BlitMode.COPY || mode == BlitMode.MASKED) && shift == 0 && coverage == 0xFF) {
+                    if(lowVisible) {
+                        System.arraycopy(data, offset + from, buffer, low * width + x + from, to - from);
+                    }
+
+                    continue;
+                }
+
+                for(int col = from; col < to; col++) {
+                    int bits = data[offset + col] & coverage;
+                    int covered = mask == null ? coverage : mask[offset + col] & coverage;
+
+                    if(lowVisible) {
+                        int index = low * width + x + col;
+                        buffer[index] = blend(buffer[index], bits << shift, covered << shift, mode);
+                    }
+
+                    if(highVisible) {
+                        int index = high * width + x + col;
+                        buffer[index] = blend(buffer[index], bits >> (8 - shift), covered >> (8 - shift), mode);
+                    }
+                }
+            }
+
+            markDirty(x, y, x + bitmapWidth - 1, y + bitmapHeight - 1);
+        } finally {
+            unlock(y, y + bitmap.getHeight() - 1);
         }
     }
 
     /**
      * Draw a line from one point to another.
+     * <br/>
+     * Diagonal lines are rasterised with Bresenham's algorithm, which uses only integer arithmetic.
      *
      * @param x0 The X position of the first point.
      * @param y0 The Y position of the first point.
@@ -88,57 +400,56 @@ public class Graphics {
      * @param y1 The Y position of the second point.
      */
     public void line(int x0, int y0, int x1, int y1) {
-        int dx = x1 - x0;
-        int dy = y1 - y0;
+        lock(Math.min(y0, y1), Math.max(y0, y1));
 
-        if(dx == 0 && dy == 0) {
-            ssd1306.setPixel(x0, y0, true);
+        try {
+            int dx = x1 - x0;
+            int dy = y1 - y0;
 
-            return;
-        }
+            if(dx == 0) {
+                verticalLine(x0, Math.min(y0, y1), Math.abs(dy) + 1);
 
-        if(dx == 0) {
-            for(int y = Math.min(y0, y1); y <= Math.max(y1, y0); y++) {
-                ssd1306.setPixel(x0, y, true);
-            }
-        } else if(dy == 0) {
-            for(int x = Math.min(x0, x1); x <= Math.max(x1, x0); x++) {
-                ssd1306.setPixel(x, y0, true);
-            }
-        } else if(Math.abs(dx) >= Math.abs(dy)) {
-            if(dx < 0) {
-                int ox = x0;
-                int oy = y0;
-                x0 = x1;
-                y0 = y1;
-                x1 = ox;
-                y1 = oy;
-                dx = x1 - x0;
-                dy = y1 - y0;
+                return;
+            } else if(dy == 0) {
+                horizontalLine(Math.min(x0, x1), y0, Math.abs(dx) + 1);
+
+                return;
             }
 
-            double coeff = (double) dy / (double) dx;
+            byte[] buffer = ssd1306.getBuffer();
+            int width = ssd1306.getWidth();
+            int height = ssd1306.getHeight();
+            int stepX = dx > 0 ? 1 : -1;
+            int stepY = dy > 0 ? 1 : -1;
+            dx = Math.abs(dx);
+            dy = -Math.abs(dy);
+            int error = dx + dy;
+            int x = x0;
+            int y = y0;
 
-            for(int x = 0; x <= dx; x++) {
-                ssd1306.setPixel(x + x0, y0 + (int) Math.round(x * coeff), true);
-            }
-        } else if(Math.abs(dx) < Math.abs(dy)) {
-            if(dy < 0) {
-                int ox = x0;
-                int oy = y0;
-                x0 = x1;
-                y0 = y1;
-                x1 = ox;
-                y1 = oy;
-                dx = x1 - x0;
-                dy = y1 - y0;
-            }
+            while(true) {
+                plot(buffer, width, height, x, y);
 
-            double coeff = (double) dx / (double) dy;
+                if(x == x1 && y == y1) {
+                    break;
+                }
+
+                int error2 = error * 2;
+
+                if(error2 >= dy) {
+                    error += dy;
+                    x += stepX;
+                }
 
-            for(int y = 0; y <= dy; y++) {
-                ssd1306.setPixel(x0 + (int) Math.round(y * coeff), y + y0, true);
+                if(error2 <= dx) {
+                    error += dx;
+                    y += stepY;
+                }
             }
+
+            markDirty(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1));
+        } finally {
+            unlock(Math.min(y0, y1), Math.max(y0, y1));
         }
     }
 
@@ -152,22 +463,62 @@ public class Graphics {
      * @param fill Whether to draw a filled rectangle.
      */
     public void rectangle(int x, int y, int width, int height, boolean fill) {
-        if(fill) {
-            for(int i = 0; i < width; i++) {
-                for(int j = 0; j < height; j++) {
-                    ssd1306.setPixel(x + i, y + j, true);
-                }
+        lock(y, y + height - 1);
+
+        try {
+            if(fill) {
+                fill(x, y, width, height, true);
+            } else if(width > 0 && height > 0) {
+                verticalLine(x, y, height);
+                horizontalLine(x, y + height - 1, width);
+                verticalLine(x + width - 1, y, height);
+                horizontalLine(x, y, width);
             }
-        } else if(width > 0 && height > 0) {
-            line(x, y, x, y + height - 1);
-            line(x, y + height - 1, x + width - 1, y + height - 1);
-            line(x + width - 1, y + height - 1, x + width - 1, y);
-            line(x + width - 1, y, x, y);
+        } finally {
+            unlock(y, y + height - 1);
         }
     }
 
+    /**
+     * Clear a rectangular region of the display.
+     *
+     * @param x The X position of the region.
+     * @param y The Y position of the region.
+     * @param width The width of the region in pixels.
+     * @param height The height of the region in pixels.
+     */
+    public void clear(int x, int y, int width, int height) {
+        fill(x, y, width, height, false);
+    }
+
+    /**
+     * Draw a horizontal line.
+     *
+     * @param x The X position of the leftmost point of the line.
+     * @param y The Y position of the line.
+     * @param length The length of the line in pixels.
+     */
+    public void horizontalLine(int x, int y, int length) {
+        fill(x, y, length, 1, true);
+    }
+
+    /**
+     * Draw a vertical line.
+     *
+     * @param x The X position of the line.
+     * @param y The Y position of the topmost point of the line.
+     * @param length The length of the line in pixels.
+     */
+    public void verticalLine(int x, int y, int length) {
+        fill(x, y, 1, length, true);
+    }
+
     /**
      * Draw an arc.
+     * <br/>
+     * An angle of 0 degrees points straight down from the center, and angles increase towards the right.
+     * The arc is rasterised with the midpoint circle algorithm, and each point is tested against the start and end angles
+     * using cross products, so that no trigonometry is needed per pixel.
      *
      * @param x The X position of the center of the arc.
      * @param y The Y position of the center of the arc.
@@ -176,8 +527,77 @@ public class Graphics {
      * @param endAngle The ending angle of the arc in degrees.
      */
     public void arc(int x, int y, int radius, int startAngle, int endAngle) {
-        for(int i = startAngle; i <= endAngle; i++) {
-            ssd1306.setPixel(x + (int) Math.round(radius * Math.sin(Math.toRadians(i))), y + (int) Math.round(radius * Math.cos(Math.toRadians(i))), true);
+        lock(y - radius, y + radius);
+
+        try {
+            int sweep = endAngle - startAngle;
+
+            if(radius < 0 || sweep < 0) {
+                return;
+            }
+
+            if(sweep >= 360) {
+                circle(x, y, radius, false);
+
+                return;
+            }
+
+            double start = Math.toRadians(startAngle);
+            double end = Math.toRadians(endAngle);
+
+            if(sweep == 0) {
+                ssd1306.setPixel(x + (int) Math.round(radius * Math.sin(start)), y + (int) Math.round(radius * Math.cos(start)), true);
+
+                return;
+            }
+
+            // Fixed point direction vectors of the start and end angles
+            long startX = Math.round(Math.sin(start) * ARC_SCALE);
+            long startY = Math.round(Math.cos(start) * ARC_SCALE);
+            long endX = Math.round(Math.sin(end) * ARC_SCALE);
+            long endY = Math.round(Math.cos(end) * ARC_SCALE);
+            byte[] buffer = ssd1306.getBuffer();
+            int width = ssd1306.getWidth();
+            int height = ssd1306.getHeight();
+            int px = radius;
+            int py = 0;
+            int error = 1 - radius;
+
+            while(px >= py) {
+                for(int octant = 0; octant < 8; octant++) {
+                    int ox = (octant & 1) == 0 ? px : py;
+                    int oy = (octant & 1) == 0 ? py : px;
+
+                    if((octant & 2) != 0) {
+                        ox = -ox;
+                    }
+
+                    if((octant & 4) != 0) {
+                        oy = -oy;
+                    }
+
+                    // Whether the point lies at or after the start angle, and at or before the end angle
+                    boolean afterStart = ox * startY - oy * startX >= 0;
+                    boolean beforeEnd = endX * oy - endY * ox >= 0;
+
+                    if(sweep < 180 ? afterStart && beforeEnd : sweep == 180 ? afterStart : afterStart || beforeEnd) {
+                        plot(buffer, width, height, x + ox, y + oy);
+                    }
+                }
+
+                py++;
+
+                if(error < 0) {
+                    error += 2 * py + 1;
+                } else {
+                    px--;
+                    error += 2 * (py - px) + 1;
+                }
+            }
+
+            markDirty(x - radius, y - radius, x + radius, y + radius);
+        } finally {
+            unlock(y - radius, y + radius);
         }
     }
 
@@ -190,6 +610,281 @@ public class Graphics {
      * @param radius The radius of the circle in pixels.
      */
     public void circle(int x, int y, int radius) {
-        arc(x, y, radius, 0, 360);
+        circle(x, y, radius, false);
+    }
+
+    /**
+     * Draw a circle.
+     * <br/>
+     * The circle is rasterised with the midpoint circle algorithm. Filled circles are drawn as vertical spans,
+     * which are written a page byte at a time.
+     *
+     * @param x The X position of the center of the circle.
+     * @param y The Y position of the center of the circle.
+     * @param radius The radius of the circle in pixels.
+     * @param fill Whether to draw a filled circle.
+     */
+    public void circle(int x, int y, int radius, boolean fill) {
+        lock(y - radius, y + radius);
+
+        try {
+            if(radius < 0) {
+                return;
+            }
+
+            byte[] buffer = ssd1306.getBuffer();
+            int width = ssd1306.getWidth();
+            int height = ssd1306.getHeight();
+            int px = radius;
+            int py = 0;
+            int error = 1 - radius;
+
+            while(px >= py) {
+                if(fill) {
+                    verticalLine(x + px, y - py, py * 2 + 1);
+                    verticalLine(x - px, y - py, py * 2 + 1);
+                    verticalLine(x + py, y - px, px * 2 + 1);
+                    verticalLine(x - py, y - px, px * 2 + 1);
+                } else {
+                    plot(buffer, width, height, x + px, y + py);
+                    plot(buffer, width, height, x + py, y + px);
+                    plot(buffer, width, height, x - py, y + px);
+                    plot(buffer, width, height, x - px, y + py);
+                    plot(buffer, width, height, x - px, y - py);
+                    plot(buffer, width, height, x - py, y - px);
+                    plot(buffer, width, height, x + py, y - px);
+                    plot(buffer, width, height, x + px, y - py);
+                }
+
+                py++;
+
+                if(error < 0) {
+                    error += 2 * py + 1;
+                } else {
+                    px--;
+                    error += 2 * (py - px) + 1;
+                }
+            }
+
+            if(!fill) {
+                markDirty(x - radius, y - radius, x + radius, y + radius);
+            }
+        } finally {
+            unlock(y - radius, y + radius);
+        }
+    }
+
+    /**
+     * Get the packed glyph data of a font, reusing the data from the previous call if the font is the same.
+     *
+     * @param font The font.
+     *
+     * @return The packed glyph data of the font.
+     */
+    private byte[] glyphData(Font font) {
+        if(font != lastFont) {
+            lastGlyphData = font.getGlyphData();
+            lastFont = font;
+        }
+
+        return lastGlyphData;
+    }
+
+    /**
+     * Read a glyph column from packed glyph data.
+     *
+     * @param glyphs The packed glyph data.
+     * @param offset The index of the first byte of the column.
+     * @param bytesPerColumn The number of bytes the column is stored in.
+     *
+     * @return The column, with the top row in the least significant bit.
+     */
+    private static long column(byte[] glyphs, int offset, int bytesPerColumn) {
+        long column = glyphs[offset] & 0xFF;
+
+        for(int b = 1; b < bytesPerColumn; b++) {
+            column |= (long) (glyphs[offset + b] & 0xFF) << (b * 8);
+        }
+
+        return column;
+    }
+
+    /**
+     * Encode text in the character set of a font.
+     * <br/>
+     * Encoders are cached per character set, and the result is written into a reused buffer,
+     * so this only allocates when a new character set is seen or the text is longer than any before it.
+     *
+     * @param font The font whose character set to use.
+     * @param text The text to encode.
+     *
+     * @return A buffer containing the encoded text, from position 0 to its limit. It is only valid until the next call.
+     */
+    private ByteBuffer encode(Font font, String text) {
+        CharsetEncoder encoder = encoders.computeIfAbsent(font.getName(), name -> Charset.forName(name).newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        int length = (int) Math.ceil(text.length() * (double) encoder.maxBytesPerChar());
+
+        if(encoded.capacity() < length) {
+            encoded = ByteBuffer.allocate(length);
+        }
+
+        encoded.clear();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(text), encoded, true);
+        encoder.flush(encoded);
+        encoded.flip();
+
+        return encoded;
+    }
+
+    /**
+     * Turn a pixel on directly in the buffer, ignoring it if it is out of bounds.
+     * The caller is responsible for marking the affected region dirty.
+     *
+     * @param buffer The display buffer.
+     * @param width The width of the display.
+     * @param height The height of the display.
+     * @param x The X position of the pixel.
+     * @param y The Y position of the pixel.
+     */
+    private void plot(byte[] buffer, int width, int height, int x, int y) {
+        if(x >= 0 && x < width && y >= 0 && y < height) {
+            buffer[x + (y >> 3) * width] |= (byte) (1 << (y & 7));
+        }
+    }
+
+    /**
+     * Combine a byte of a bitmap with a byte of the buffer.
+     *
+     * @param target The byte of the buffer.
+     * @param bits The pixels of the bitmap, shifted into place.
+     * @param covered The pixels of the buffer the bitmap covers, shifted into place.
+     * @param mode How to combine the bitmap with the buffer.
+     *
+     * @return The combined byte.
+     */
+    private static byte blend(byte target, int bits, int covered, BlitMode mode) {
+        switch(mode) {
+            case OR:
+                return (byte) (target | bits);
+            case AND_NOT:
+                return (byte) (target & ~bits);
+            case XOR:
+                return (byte) (target ^ bits);
+            default:
+                return (byte) ((target & ~covered) | (bits & covered));
+        }
+    }
+
+    /**
+     * Mark the pages of a region of the display as changed, ignoring it if it is entirely out of bounds.
+     *
+     * @param startX The leftmost X position of the region.
+     * @param startY The topmost Y position of the region.
+     * @param endX The rightmost X position of the region.
+     * @param endY The bottommost Y position of the region.
+     */
+    private void markDirty(int startX, int startY, int endX, int endY) {
+        if(endX < 0 || endY < 0 || startX >= ssd1306.getWidth() || startY >= ssd1306.getHeight()) {
+            return;
+        }
+
+        ssd1306.markDirty(startX, endX, Math.max(startY, 0) / 8, endY / 8);
+    }
+
+    /**
+     * Lock the pages spanned by a range of rows, if page locking is enabled.
+     *
+     * @param startY The first row.
+     * @param endY The last row.
+     *
+     * @see SSD1306#setPageLocking(boolean)
+     */
+    private void lock(int startY, int endY) {
+        ssd1306.lockPages(Math.floorDiv(startY, 8), Math.floorDiv(endY, 8));
+    }
+
+    /**
+     * Unlock the pages spanned by a range of rows locked with {@link #lock(int, int)}.
+     *
+     * @param startY The first row.
+     * @param endY The last row.
+     */
+    private void unlock(int startY, int endY) {
+        ssd1306.unlockPages(Math.floorDiv(startY, 8), Math.floorDiv(endY, 8));
+    }
+
+    /**
+     * Turn a rectangular region of pixels on or off.
+     * <br/>
+     * Rather than setting each pixel individually, this writes whole bytes of the buffer,
+     * masking only the partially covered pages at the top and bottom of the region.
+     *
+     * @param x The X position of the region.
+     * @param y The Y position of the region.
+     * @param width The width of the region in pixels.
+     * @param height The height of the region in pixels.
+     * @param on Whether to turn the pixels on or off.
+     */
+    private void fill(int x, int y, int width, int height, boolean on) {
+        int displayWidth = ssd1306.getWidth();
+        int startX = Math.max(x, 0);
+        int endX = Math.min(x + width, displayWidth) - 1;
+        int startY = Math.max(y, 0);
+        int endY = Math.min(y + height, ssd1306.getHeight()) - 1;
+
+        if(startX > endX || startY > endY) {
+            return;
+        }
+
+        int startPage = startY / 8;
+        int endPage = endY / 8;
+        int topMask = 0xFF << (startY & 7);
+        int bottomMask = 0xFF >>> (7 - (endY & 7));
+        ssd1306.lockPages(startPage, endPage);
+
+        try {
+            byte[] buffer = ssd1306.getBuffer();
+
+            if(startPage == endPage) {
+                fillPage(buffer, startPage * displayWidth, startX, endX, topMask & bottomMask, on);
+            } else {
+                fillPage(buffer, startPage * displayWidth, startX, endX, topMask, on);
+
+                for(int page = startPage + 1; page < endPage; page++) {
+                    Arrays.fill(buffer, page * displayWidth + startX, page * displayWidth + endX + 1, on ? (byte) 0xFF : 0);
+                }
+
+                fillPage(buffer, endPage * displayWidth, startX, endX, bottomMask, on);
+            }
+
+            ssd1306.markDirty(startX, endX, startPage, endPage);
+        } finally {
+            ssd1306.unlockPages(startPage, endPage);
+        }
+    }
+
+    /**
+     * Turn the masked bits of a run of columns in a page on or off.
+     *
+     * @param buffer The display buffer.
+     * @param offset The offset of the page in the buffer.
+     * @param startX The first column.
+     * @param endX The last column.
+     * @param mask The bits to change in each column.
+     * @param on Whether to turn the bits on or off.
+     */
+    private void fillPage(byte[] buffer, int offset, int startX, int endX, int mask, boolean on) {
+        if(on) {
+            for(int i = offset + startX; i <= offset + endX; i++) {
+                buffer[i] |= (byte) mask;
+            }
+        } else {
+            for(int i = offset + startX; i <= offset + endX; i++) {
+                buffer[i] &= (byte) ~mask;
+            }
+        }
     }
 }
@@ -0,0 +1,287 @@
+package net.fauxpark.oled;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Reads the rows of an image as luminance values, scaling it with nearest neighbour sampling.
+ * <br/>
+ * Grayscale, RGB, BGR and 1-bit images are read straight from their backing arrays. 8-bit gray samples are used as the
+ * luminance as they are, which is how grayscale files decoded by ImageIO are meant to be read.
+ * Other image types are read a row at a time through {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+ * All scratch buffers are kept between images, so converting a stream of same-sized frames does not allocate.
+ *
+ * @author fauxpark
+ */
+class ImageSampler {
+    /**
+     * The image is read through {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     */
+    private static final int GENERIC = 0;
+
+    /**
+     * The image is stored as one or three bytes per pixel.
+     */
+    private static final int BYTE_COMPONENT = 1;
+
+    /**
+     * The image is stored as one int per pixel.
+     */
+    private static final int INT_PACKED = 2;
+
+    /**
+     * The image is stored as one bit per pixel.
+     */
+    private static final int BIT_PACKED = 3;
+
+    /**
+     * The image being read.
+     */
+    private BufferedImage image;
+
+    /**
+     * The way the image is read, one of the constants above.
+     */
+    private int kind;
+
+    /**
+     * The height of the scaled image in pixels.
+     */
+    private int height;
+
+    /**
+     * The source column for each column of the scaled image.
+     */
+    private int[] columns = new int[0];
+
+    /**
+     * The luminance of each column of the current row of the scaled image.
+     */
+    private int[] line = new int[0];
+
+    /**
+     * A row of the source image as ARGB values, used by the generic path.
+     */
+    private int[] argb = new int[0];
+
+    /**
+     * The backing array of a byte image.
+     */
+    private byte[] bytes;
+
+    /**
+     * The backing array of an int image.
+     */
+    private int[] ints;
+
+    /**
+     * The offset of the first sample of the image in its backing array.
+     */
+    private int offset;
+
+    /**
+     * The distance between rows in the backing array.
+     */
+    private int scanlineStride;
+
+    /**
+     * The distance between pixels in the backing array.
+     */
+    private int pixelStride;
+
+    /**
+     * The bit offset of the first pixel of each row of a 1-bit image.
+     */
+    private int bitOffset;
+
+    /**
+     * The offsets of the red, green and blue (or only gray) samples of a pixel.
+     */
+    private int[] bandOffsets;
+
+    /**
+     * The luminance of each of the two palette entries of a 1-bit image.
+     */
+    private final int[] palette = new int[2];
+
+    /**
+     * Prepare to read an image.
+     *
+     * @param image The image to read.
+     * @param width The width to scale the image to.
+     * @param height The height to scale the image to.
+     *
+     * @return The line buffer each row is read into, which holds at least <i>width</i> values.
+     */
+    int[] begin(BufferedImage image, int width, int height) {
+        this.image = image;
+        this.height = height;
+
+        if(columns.length < width) {
+            columns = new int[width];
+            line = new int[width];
+        }
+
+        int sourceWidth = image.getWidth();
+
+        for(int x = 0; x < width; x++) {
+            columns[x] = (int) (((2L * x + 1) * sourceWidth) / (2L * width));
+        }
+
+        WritableRaster raster = image.getRaster();
+        int translateX = -raster.getSampleModelTranslateX();
+        int translateY = -raster.getSampleModelTranslateY();
+        kind = GENERIC;
+
+        switch(image.getType()) {
+            case BufferedImage.TYPE_BYTE_GRAY:
+            case BufferedImage.TYPE_3BYTE_BGR: {
+                ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+                DataBufferByte data = (DataBufferByte) raster.getDataBuffer();
+                bytes = data.getData();
+                scanlineStride = model.getScanlineStride();
+                pixelStride = model.getPixelStride();
+                bandOffsets = model.getBandOffsets();
+                offset = data.getOffset() + translateY * scanlineStride + translateX * pixelStride;
+                kind = BYTE_COMPONENT;
+
+                break;
+            }
+            case BufferedImage.TYPE_INT_RGB: {
+                SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+                DataBufferInt data = (DataBufferInt) raster.getDataBuffer();
+                ints = data.getData();
+                scanlineStride = model.getScanlineStride();
+                offset = data.getOffset() + translateY * scanlineStride + translateX;
+                kind = INT_PACKED;
+
+                break;
+            }
+            case BufferedImage.TYPE_BYTE_BINARY: {
+                if(raster.getSampleModel() instanceof MultiPixelPackedSampleModel
+                    && ((MultiPixelPackedSampleModel) raster.getSampleModel()).getPixelBitStride() == 1) {
+                    MultiPixelPackedSampleModel model = (MultiPixelPackedSampleModel) raster.getSampleModel();
+                    DataBufferByte data = (DataBufferByte) raster.getDataBuffer();
+                    IndexColorModel colors = (IndexColorModel) image.getColorModel();
+                    bytes = data.getData();
+                    scanlineStride = model.getScanlineStride();
+                    offset = data.getOffset() + translateY * scanlineStride;
+                    bitOffset = model.getDataBitOffset() + translateX;
+                    palette[0] = luminance(colors.getRGB(0));
+                    palette[1] = luminance(colors.getRGB(1));
+                    kind = BIT_PACKED;
+                }
+
+                break;
+            }
+            default:
+                break;
+        }
+
+        if(kind == GENERIC && argb.length < image.getWidth()) {
+            argb = new int[image.getWidth()];
+        }
+
+        return line;
+    }
+
+    /**
+     * Read a row of the scaled image into the line buffer.
+     *
+     * @param y The row of the scaled image to read.
+     * @param from The first column to read, inclusive.
+     * @param to The last column to read, exclusive.
+     */
+    void sample(int y, int from, int to) {
+        int sourceY = (int) (((2L * y + 1) * image.getHeight()) / (2L * height));
+
+        switch(kind) {
+            case BYTE_COMPONENT: {
+                int row = offset + sourceY * scanlineStride;
+
+                if(bandOffsets.length == 1) {
+                    int gray = row + bandOffsets[0];
+
+                    for(int x = from; x < to; x++) {
+                        line[x] = bytes[gray + columns[x] * pixelStride] & 0xFF;
+                    }
+                } else {
+                    for(int x = from; x < to; x++) {
+                        int i = row + columns[x] * pixelStride;
+                        line[x] = luminance(bytes[i + bandOffsets[0]] & 0xFF, bytes[i + bandOffsets[1]] & 0xFF, bytes[i + bandOffsets[2]] & 0xFF);
+                    }
+                }
+
+                break;
+            }
+            case INT_PACKED: {
+                int row = offset + sourceY * scanlineStride;
+
+                for(int x = from; x < to; x++) {
+                    line[x] = luminance(ints[row + columns[x]]);
+                }
+
+                break;
+            }
+            case BIT_PACKED: {
+                int row = offset + sourceY * scanlineStride;
+
+                for(int x = from; x < to; x++) {
+                    int bit = bitOffset + columns[x];
+                    line[x] = palette[(bytes[row + (bit >> 3)] >> (7 - (bit & 7))) & 1];
+                }
+
+                break;
+            }
+            default: {
+                image.getRGB(0, sourceY, image.getWidth(), 1, argb, 0, argb.length);
+
+                for(int x = from; x < to; x++) {
+                    int pixel = argb[columns[x]];
+                    line[x] = luminance(pixel) * (pixel >>> 24) / 255;
+                }
+
+                break;
+            }
+        }
+    }
+
+    /**
+     * Release the image being read, so that it is not kept alive by the scratch buffers.
+     */
+    void end() {
+        image = null;
+        bytes = null;
+        ints = null;
+    }
+
+    /**
+     * Calculate the luminance of a packed RGB colour.
+     *
+     * @param rgb The colour, with red in bits 16-23, green in bits 8-15 and blue in bits 0-7.
+     *
+     * @return The luminance of the colour, from 0 to 255.
+     */
+    static int luminance(int rgb) {
+        return luminance(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * Calculate the luminance of a colour, using the Rec. 601 weights in 8-bit fixed point.
+     *
+     * @param r The red component, from 0 to 255.
+     * @param g The green component, from 0 to 255.
+     * @param b The blue component, from 0 to 255.
+     *
+     * @return The luminance of the colour, from 0 to 255.
+     */
+    static int luminance(int r, int g, int b) {
+        return (r * 77 + g * 150 + b * 29) >> 8;
+    }
+}
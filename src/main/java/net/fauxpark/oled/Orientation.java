@@ -0,0 +1,50 @@
+package net.fauxpark.oled;
+
+/**
+ * The ways in which a panel can be mounted in a {@link VirtualCanvas}.
+ *
+ * @author fauxpark
+ * @see VirtualCanvas#addTile(SSD1306, int, int, Orientation)
+ */
+public enum Orientation {
+    /**
+     * The panel is mounted upright.
+     */
+    NORMAL,
+
+    /**
+     * The panel is mounted rotated 90 degrees clockwise, so its top left corner is at the top right of its tile,
+     * and the tile is as wide as the panel is tall.
+     */
+    ROTATE_90,
+
+    /**
+     * The panel is mounted upside down.
+     */
+    ROTATE_180,
+
+    /**
+     * The panel is mounted rotated 90 degrees anticlockwise, so its top left corner is at the bottom left of its tile,
+     * and the tile is as wide as the panel is tall.
+     */
+    ROTATE_270,
+
+    /**
+     * The panel is mirrored left to right.
+     */
+    FLIP_HORIZONTAL,
+
+    /**
+     * The panel is mirrored top to bottom.
+     */
+    FLIP_VERTICAL;
+
+    /**
+     * Indicates whether the panel is turned on its side, swapping the width and height of its tile.
+     *
+     * @return True if the orientation is {@link #ROTATE_90} or {@link #ROTATE_270}.
+     */
+    public boolean isSideways() {
+        return this == ROTATE_90 || this == ROTATE_270;
+    }
+}
@@ -0,0 +1,71 @@
+package net.fauxpark.oled;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A lock for each page of a display buffer, so that regions in different pages can be drawn on in parallel.
+ * <br/>
+ * Spans of pages are always locked in ascending order and unlocked in descending order,
+ * so that threads locking overlapping spans cannot deadlock.
+ *
+ * @author fauxpark
+ */
+class PageLocks {
+    /**
+     * The lock of each page.
+     */
+    private final ReentrantLock[] locks;
+
+    /**
+     * PageLocks constructor.
+     *
+     * @param pages The number of pages in the buffer.
+     */
+    PageLocks(int pages) {
+        locks = new ReentrantLock[pages];
+
+        for(int page = 0; page < pages; page++) {
+            locks[page] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock a span of pages, waiting for any other thread holding one of them to unlock it.
+     * Pages outside the buffer are ignored.
+     *
+     * @param startPage The first page of the span.
+     * @param endPage The last page of the span.
+     */
+    void lock(int startPage, int endPage) {
+        for(int page = Math.max(startPage, 0); page <= Math.min(endPage, locks.length - 1); page++) {
+            locks[page].lock();
+        }
+    }
+
+    /**
+     * Unlock a span of pages previously locked with {@link #lock(int, int)}.
+     *
+     * @param startPage The first page of the span.
+     * @param endPage The last page of the span.
+     */
+    void unlock(int startPage, int endPage) {
+        for(int page = Math.min(endPage, locks.length - 1); page >= Math.max(startPage, 0); page--) {
+            locks[page].unlock();
+        }
+    }
+
+    /**
+     * Get whether the calling thread holds any page lock.
+     *
+     * @return True if the calling thread holds the lock of at least one page.
+     */
+    boolean isHeldByCurrentThread() {
+        for(ReentrantLock lock : locks) {
+            if(lock.isHeldByCurrentThread()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
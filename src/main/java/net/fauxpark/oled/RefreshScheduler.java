@@ -0,0 +1,218 @@
+package net.fauxpark.oled;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how often an SSD1306 is refreshed when several producers request it.
+ * <br/>
+ * Calls to {@link #requestDisplay()} are coalesced, and at most one frame is sent per tick of the scheduler.
+ * A request that arrives while an earlier one is still waiting supersedes it, and the earlier one is counted as dropped.
+ * Frames are sent through {@link SSD1306#present()}, so only the changed regions of the buffer go out,
+ * and the asynchronous pipeline is used if it is running.
+ *
+ * @author fauxpark
+ */
+public class RefreshScheduler {
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The SSD1306 to refresh.
+     */
+    private final SSD1306 ssd1306;
+
+    /**
+     * The maximum number of frames to send per second.
+     */
+    private final int maxFrameRate;
+
+    /**
+     * Indicates whether a refresh has been requested since the last frame was sent.
+     */
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    /**
+     * The number of frames sent.
+     */
+    private final AtomicLong frames = new AtomicLong();
+
+    /**
+     * The number of requests superseded by a later one before they were sent.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The number of frames that could not be sent.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * The failure of the last frame that could not be sent, if any.
+     */
+    private volatile RuntimeException lastFailure;
+
+    /**
+     * The executor ticking the scheduler.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * The time at which the current frame rate measurement began.
+     */
+    private long windowStart;
+
+    /**
+     * The number of frames sent since the current frame rate measurement began.
+     */
+    private long windowFrames;
+
+    /**
+     * The frame rate achieved over the last measurement.
+     */
+    private volatile double frameRate;
+
+    /**
+     * RefreshScheduler constructor.
+     *
+     * @param ssd1306 The SSD1306 to refresh.
+     * @param maxFrameRate The maximum number of frames to send per second. Values less than 1 will be clamped.
+     */
+    public RefreshScheduler(SSD1306 ssd1306, int maxFrameRate) {
+        this.ssd1306 = ssd1306;
+        this.maxFrameRate = Math.max(1, maxFrameRate);
+        windowStart = System.nanoTime();
+    }
+
+    /**
+     * Start ticking the scheduler, beginning a new frame rate measurement.
+     */
+    public synchronized void start() {
+        if(executor == null) {
+            windowStart = System.nanoTime();
+            windowFrames = 0;
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "SSD1306 refresh scheduler");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            long period = NANOS_PER_SECOND / maxFrameRate;
+            executor.scheduleAtFixedRate(() -> tick(System.nanoTime()), period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stop ticking the scheduler, waiting for any frame being sent to finish.
+     */
+    public synchronized void stop() {
+        if(executor != null) {
+            executor.shutdown();
+
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            executor = null;
+        }
+    }
+
+    /**
+     * Request that the buffer be sent to the display on the next tick.
+     */
+    public void requestDisplay() {
+        if(requested.getAndSet(true)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the maximum frame rate.
+     *
+     * @return The maximum number of frames sent per second.
+     */
+    public int getMaxFrameRate() {
+        return maxFrameRate;
+    }
+
+    /**
+     * Get the achieved frame rate.
+     *
+     * @return The number of frames sent per second, measured over roughly the last second.
+     */
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Get the number of frames sent.
+     *
+     * @return The number of frames sent since the scheduler was created.
+     */
+    public long getFrameCount() {
+        return frames.get();
+    }
+
+    /**
+     * Get the number of dropped frames.
+     *
+     * @return The number of requests superseded by a later one before they were sent.
+     */
+    public long getDroppedFrameCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of failed frames. These are not included in {@link #getFrameCount()} or {@link #getFrameRate()}.
+     *
+     * @return The number of frames that could not be sent since the scheduler was created.
+     */
+    public long getFailedFrameCount() {
+        return failed.get();
+    }
+
+    /**
+     * Get the failure of the last frame that could not be sent.
+     * <br/>
+     * The scheduler keeps ticking after a failure, so that a transient bus error does not stop the display from being refreshed.
+     *
+     * @return The exception thrown by the last failed frame, or null if no frame has failed.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Send a frame if one has been requested, and update the frame rate measurement.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    void tick(long now) {
+        if(requested.getAndSet(false)) {
+            // Throwing from here would cancel every later tick, so the failure is recorded instead
+            try {
+                ssd1306.present();
+                frames.incrementAndGet();
+                windowFrames++;
+            } catch(RuntimeException e) {
+                lastFailure = e;
+                failed.incrementAndGet();
+            }
+        }
+
+        long elapsed = now - windowStart;
+
+        if(elapsed >= NANOS_PER_SECOND) {
+            frameRate = (double) windowFrames * NANOS_PER_SECOND / elapsed;
+            windowStart = now;
+            windowFrames = 0;
+        }
+    }
+}
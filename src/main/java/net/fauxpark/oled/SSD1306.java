@@ -1,5 +1,8 @@
 package net.fauxpark.oled;
 
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
 import net.fauxpark.oled.transport.Transport;
 
 /**
@@ -14,7 +17,7 @@ public class SSD1306 {
     private Graphics graphics;
 
     /**
-     * The transport to use.
+     * The transport to use, or null for an offscreen surface.
      */
     private final Transport transport;
 
@@ -38,6 +41,76 @@ public class SSD1306 {
      */
     private byte[] buffer;
 
+    /**
+     * A copy of the buffer as it was last sent to the display, or null for an offscreen surface.
+     */
+    private final byte[] shadow;
+
+    /**
+     * A reusable buffer for gathering windows of the buffer that are narrower than the display, or null for an offscreen surface.
+     */
+    private final byte[] window;
+
+    /**
+     * Indicates whether the shadow buffer reflects the contents of the display RAM.
+     */
+    private boolean shadowValid;
+
+    /**
+     * The first column of each page that has changed since it was last sent.
+     */
+    private final int[] dirtyStart;
+
+    /**
+     * The last column of each page that has changed since it was last sent.
+     */
+    private final int[] dirtyEnd;
+
+    /**
+     * Plans the windows used to send the changed regions of the buffer, or null for an offscreen surface.
+     */
+    private final FlushPlanner planner;
+
+    /**
+     * Serialises sending to the display. Frames may be sent from virtual threads, which would stay pinned to their carrier thread
+     * for the length of every transfer if this were a monitor.
+     * <br/>
+     * This is always taken before any page lock, never while holding one.
+     */
+    private final ReentrantLock busLock = new ReentrantLock();
+
+    /**
+     * Serialises starting and stopping the asynchronous display pipeline. Stopping waits for the flusher thread,
+     * which would pin a virtual thread to its carrier if this were a monitor.
+     */
+    private final ReentrantLock asyncLock = new ReentrantLock();
+
+    /**
+     * The asynchronous display pipeline, if it is running.
+     */
+    private volatile DisplayPipeline pipeline;
+
+    /**
+     * The lock of each page of the buffer, if page locking is enabled.
+     * This is not volatile, as it must not change while other threads are drawing, and it is read on every {@link #setPixel(int, int, boolean)}.
+     */
+    private PageLocks pageLocks;
+
+    /**
+     * A copy of the buffer taken while every page is locked, which is then sent without holding any page lock.
+     */
+    private byte[] snapshot;
+
+    /**
+     * The first changed column of each page of the snapshot.
+     */
+    private int[] snapshotStart;
+
+    /**
+     * The last changed column of each page of the snapshot.
+     */
+    private int[] snapshotEnd;
+
     /**
      * Indicates whether the display has been started up.
      */
@@ -120,7 +193,36 @@ public class SSD1306 {
         this.height = height;
         pages = height / 8;
         buffer = new byte[width * pages];
+        shadow = new byte[width * pages];
+        window = new byte[width * pages];
+        dirtyStart = new int[pages];
+        dirtyEnd = new int[pages];
+        planner = new FlushPlanner(pages);
         this.transport = transport;
+        markDirty();
+    }
+
+    /**
+     * SSD1306 constructor for an offscreen surface.
+     * <br/>
+     * An offscreen surface only has a buffer to draw into, with its changed regions tracked in the same way as a display.
+     * It has no transport, and must never be started or sent.
+     *
+     * @param width The width of the surface in pixels.
+     * @param height The height of the surface in pixels.
+     */
+    SSD1306(int width, int height) {
+        this.width = width;
+        this.height = height;
+        pages = height / 8;
+        buffer = new byte[width * pages];
+        shadow = null;
+        window = null;
+        dirtyStart = new int[pages];
+        dirtyEnd = new int[pages];
+        planner = null;
+        transport = null;
+        markDirty();
     }
 
     /**
@@ -137,24 +239,31 @@ public class SSD1306 {
      */
     public void startup(boolean externalVcc) {
         reset();
-        setDisplayOn(false);
-        command(Command.SET_DISPLAY_CLOCK_DIV, width);
-        command(Command.SET_MULTIPLEX_RATIO, height - 1);
-        setOffset(0);
-        setStartLine(0);
-        command(Command.SET_CHARGE_PUMP, externalVcc ? Constant.CHARGE_PUMP_DISABLE : Constant.CHARGE_PUMP_ENABLE);
-        setMemoryMode(Constant.MEMORY_MODE_HORIZONTAL);
-        setHFlipped(false);
-        setVFlipped(false);
-        setCOMPinsConfiguration(height == 64 ? Constant.COM_PINS_ALTERNATING : Constant.COM_PINS_SEQUENTIAL);
-        setContrast(externalVcc ? 0x9F : 0xCF);
-        command(Command.SET_PRECHARGE_PERIOD, externalVcc ? 0x22 : 0xF1);
-        command(Command.SET_VCOMH_DESELECT, Constant.VCOMH_DESELECT_LEVEL_00);
-        command(Command.DISPLAY_ALL_ON_RESUME);
-        setInverted(false);
-        setDisplayOn(true);
-        clear();
-        display();
+        beginBatch();
+
+        try {
+            setDisplayOn(false);
+            command(Command.SET_DISPLAY_CLOCK_DIV, width);
+            command(Command.SET_MULTIPLEX_RATIO, height - 1);
+            setOffset(0);
+            setStartLine(0);
+            command(Command.SET_CHARGE_PUMP, externalVcc ? Constant.CHARGE_PUMP_DISABLE : Constant.CHARGE_PUMP_ENABLE);
+            setMemoryMode(Constant.MEMORY_MODE_HORIZONTAL);
+            setHFlipped(false);
+            setVFlipped(false);
+            setCOMPinsConfiguration(height == 64 ? Constant.COM_PINS_ALTERNATING : Constant.COM_PINS_SEQUENTIAL);
+            setContrast(externalVcc ? 0x9F : 0xCF);
+            command(Command.SET_PRECHARGE_PERIOD, externalVcc ? 0x22 : 0xF1);
+            command(Command.SET_VCOMH_DESELECT, Constant.VCOMH_DESELECT_LEVEL_00);
+            command(Command.DISPLAY_ALL_ON_RESUME);
+            setInverted(false);
+            setDisplayOn(true);
+            clear();
+            display();
+        } finally {
+            endBatch();
+        }
+
         initialised = true;
     }
 
@@ -162,16 +271,31 @@ public class SSD1306 {
      * Start the power off procedure for the display.
      */
     public void shutdown() {
-        clear();
-        display();
-        setDisplayOn(false);
+        stopAsync();
+        beginBatch();
+
+        try {
+            clear();
+            display();
+            setDisplayOn(false);
+        } finally {
+            endBatch();
+        }
+
         reset();
-        setInverted(false);
-        setHFlipped(false);
-        setVFlipped(false);
-        stopScroll();
-        setContrast(0);
-        setOffset(0);
+        beginBatch();
+
+        try {
+            setInverted(false);
+            setHFlipped(false);
+            setVFlipped(false);
+            stopScroll();
+            setContrast(0);
+            setOffset(0);
+        } finally {
+            endBatch();
+        }
+
         transport.shutdown();
         initialised = false;
     }
@@ -181,31 +305,325 @@ public class SSD1306 {
      */
     public void reset() {
         transport.reset();
+
+        // The contents of the display RAM are unknown after a reset
+        invalidate();
     }
 
     /**
      * Clear the buffer.
      * <br/>
+     * The buffer is cleared in place, so the array returned by {@link #getBuffer()} remains the same.
+     * <br/>
      * NOTE: This does not clear the display, you must manually call {@link #display()}.
      */
     public void clear() {
-        buffer = new byte[width * pages];
+        lockPages(0, pages - 1);
+
+        try {
+            Arrays.fill(buffer, (byte) 0);
+            markDirty();
+        } finally {
+            unlockPages(0, pages - 1);
+        }
+    }
+
+    /**
+     * Clear a region of the buffer.
+     * <br/>
+     * NOTE: This does not clear the display, you must manually call {@link #display()}.
+     *
+     * @param startCol The first column of the region.
+     * @param endCol The last column of the region.
+     * @param startPage The first page of the region.
+     * @param endPage The last page of the region.
+     */
+    public void clear(int startCol, int endCol, int startPage, int endPage) {
+        // Only the part of the region on the display is affected, which may be nothing at all
+        startCol = Math.max(startCol, 0);
+        endCol = Math.min(endCol, width - 1);
+        startPage = Math.max(startPage, 0);
+        endPage = Math.min(endPage, pages - 1);
+
+        if(startCol > endCol || startPage > endPage) {
+            return;
+        }
+
+        lockPages(startPage, endPage);
+
+        try {
+            for(int page = startPage; page <= endPage; page++) {
+                Arrays.fill(buffer, page * width + startCol, page * width + endCol + 1, (byte) 0);
+            }
+
+            markDirty(startCol, endCol, startPage, endPage);
+        } finally {
+            unlockPages(startPage, endPage);
+        }
     }
 
     /**
      * Send the buffer to the display.
      */
-    public synchronized void display() {
-        command(Command.SET_COLUMN_ADDRESS, 0, width - 1);
-        command(Command.SET_PAGE_ADDRESS, 0, pages - 1);
-        data(buffer);
+    public void display() {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            if(pageLocks == null) {
+                sendAll(buffer);
+                markClean();
+            } else {
+                takeSnapshot();
+                sendAll(snapshot);
+            }
+
+            // Jump start scrolling again if new data is written while enabled
+            if(isScrolling()) {
+                noOp();
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Send only the regions of the buffer that have changed since they were last sent to the display.
+     * <br/>
+     * Changes are tracked as a column range per page, covering every pixel modified through {@link #setPixel(int, int, boolean)},
+     * {@link #clear()}, {@link #setBuffer(byte[])} or {@link #markDirty(int, int, int, int)}. Depending on the window overhead
+     * of the transport, these are sent as several small windows or merged into larger ones. If nothing has changed, nothing is sent.
+     * <br/>
+     * Each changed range is first narrowed down to the bytes that actually differ from what was last sent,
+     * so redrawing a whole scene every frame only sends the parts of it that moved.
+     * <br/>
+     * If page locking is enabled, the buffer is first copied while every page is locked, and the copy is then sent
+     * without holding any page lock, so drawing can continue while it is on the bus.
+     *
+     * @see Transport#getWindowOverhead()
+     * @see #setPageLocking(boolean)
+     */
+    public void displayDirty() {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            if(pageLocks == null) {
+                flush(buffer, dirtyStart, dirtyEnd);
+            } else {
+                takeSnapshot();
+                flush(snapshot, snapshotStart, snapshotEnd);
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Start the asynchronous display pipeline.
+     * <br/>
+     * While it is running, {@link #present()} hands the buffer over to a dedicated thread which sends it to the display,
+     * so that drawing the next frame can continue while the current one is on the bus.
+     */
+    public void startAsync() {
+        asyncLock.lock();
+
+        try {
+            if(pipeline == null) {
+                DisplayPipeline pipeline = new DisplayPipeline(this, buffer.length, pages, width);
+                pipeline.start();
+                this.pipeline = pipeline;
+            }
+        } finally {
+            asyncLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the asynchronous display pipeline, waiting for the last presented frame to be sent.
+     *
+     * @throws IllegalStateException If a presented frame could not be sent since the last failure was reported.
+     * The pipeline is stopped regardless.
+     */
+    public void stopAsync() {
+        asyncLock.lock();
+
+        try {
+            DisplayPipeline pipeline = this.pipeline;
+
+            if(pipeline != null) {
+                this.pipeline = null;
+                pipeline.stop();
+            }
+        } finally {
+            asyncLock.unlock();
+        }
+    }
+
+    /**
+     * Get the state of the asynchronous display pipeline.
+     *
+     * @return Whether the asynchronous display pipeline is running.
+     */
+    public boolean isAsync() {
+        return pipeline != null;
+    }
+
+    /**
+     * Present the buffer to the display.
+     * <br/>
+     * If the asynchronous display pipeline is running, the buffer is copied to the pipeline and this method returns immediately;
+     * the changed regions are then sent in the same way as {@link #displayDirty()}. A frame that has not been sent by the time
+     * the next one is presented is superseded by it. The buffer itself is left as it was, ready for further drawing.
+     * <br/>
+     * Otherwise, this is the same as calling {@link #displayDirty()}.
+     *
+     * @throws IllegalStateException If the asynchronous display pipeline is running, and a frame presented earlier could not be sent.
+     * The failure is only reported once, and this frame is not presented; the next frame is sent whole.
+     */
+    public void present() {
+        DisplayPipeline pipeline = this.pipeline;
+
+        if(pipeline == null) {
+            displayDirty();
+        } else {
+            lockPages(0, pages - 1);
+
+            try {
+                pipeline.present(buffer, dirtyStart, dirtyEnd);
+                markClean();
+            } finally {
+                unlockPages(0, pages - 1);
+            }
+        }
+    }
+
+    /**
+     * Enable or disable page locking.
+     * <br/>
+     * While page locking is enabled, every write to the buffer through this class or {@link Graphics} holds the lock
+     * of each page it touches, so that threads drawing in different pages run in parallel, while threads drawing in the same page
+     * take turns. Sending the buffer holds every page lock only for as long as it takes to copy it, so a frame is never sent
+     * with a drawing operation half done. Each thread should draw with its own {@link #createGraphics()} instance.
+     * <br/>
+     * This must not be changed while other threads are drawing.
+     *
+     * @param enabled Whether to enable page locking.
+     */
+    public void setPageLocking(boolean enabled) {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            if(!enabled) {
+                pageLocks = null;
+            } else if(pageLocks == null) {
+                snapshot = new byte[buffer.length];
+                snapshotStart = new int[pages];
+                snapshotEnd = new int[pages];
+                pageLocks = new PageLocks(pages);
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Get the page locking state.
+     *
+     * @return Whether page locking is enabled.
+     */
+    public boolean isPageLocking() {
+        return pageLocks != null;
+    }
+
+    /**
+     * Lock a span of pages of the buffer, if page locking is enabled.
+     * <br/>
+     * This only needs to be called when modifying the array returned by {@link #getBuffer()} directly,
+     * or to group several drawing operations so that they are always sent together. Locks are reentrant,
+     * but the whole span must be locked up front: locking a lower page while holding a higher one may deadlock.
+     * Every call must be matched by a call to {@link #unlockPages(int, int)} with the same span, eg. in a <code>finally</code> block.
+     * <br/>
+     * Sending to the display locks every page, after serialising with other threads sending to it, so nothing that sends
+     * (eg. {@link #display()}, {@link #displayDirty()}, {@link #setHFlipped(boolean)} or {@link #reset()}) may be called
+     * while holding a page lock. Doing so throws an {@link IllegalStateException} rather than risking a deadlock.
+     *
+     * @param startPage The first page of the span.
+     * @param endPage The last page of the span.
+     *
+     * @see #setPageLocking(boolean)
+     */
+    public void lockPages(int startPage, int endPage) {
+        PageLocks locks = pageLocks;
 
-        // Jump start scrolling again if new data is written while enabled
-        if(isScrolling()) {
-            noOp();
+        if(locks != null) {
+            locks.lock(startPage, endPage);
         }
     }
 
+    /**
+     * Unlock a span of pages of the buffer locked with {@link #lockPages(int, int)}.
+     *
+     * @param startPage The first page of the span.
+     * @param endPage The last page of the span.
+     */
+    public void unlockPages(int startPage, int endPage) {
+        PageLocks locks = pageLocks;
+
+        if(locks != null) {
+            locks.unlock(startPage, endPage);
+        }
+    }
+
+    /**
+     * Mark a region of the buffer as changed, so that it is sent by the next call to {@link #displayDirty()}.
+     * <br/>
+     * This only needs to be called when modifying the array returned by {@link #getBuffer()} directly.
+     *
+     * @param startCol The first column of the region.
+     * @param endCol The last column of the region.
+     * @param startPage The first page of the region.
+     * @param endPage The last page of the region.
+     */
+    public void markDirty(int startCol, int endCol, int startPage, int endPage) {
+        // Only the part of the region on the display is affected, which may be nothing at all
+        startCol = Math.max(startCol, 0);
+        endCol = Math.min(endCol, width - 1);
+        startPage = Math.max(startPage, 0);
+        endPage = Math.min(endPage, pages - 1);
+
+        if(startCol > endCol || startPage > endPage) {
+            return;
+        }
+
+        lockPages(startPage, endPage);
+
+        try {
+            for(int page = startPage; page <= endPage; page++) {
+                dirtyStart[page] = Math.min(dirtyStart[page], startCol);
+                dirtyEnd[page] = Math.max(dirtyEnd[page], endCol);
+            }
+        } finally {
+            unlockPages(startPage, endPage);
+        }
+    }
+
+    /**
+     * Get the dirty state of the buffer.
+     *
+     * @return Whether any part of the buffer has changed since it was last sent to the display.
+     */
+    public boolean isDirty() {
+        for(int page = 0; page < pages; page++) {
+            if(dirtyStart[page] <= dirtyEnd[page]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Get the width of the display.
      *
@@ -322,8 +740,14 @@ public class SSD1306 {
      * @see Constant#SCROLL_STEP_5
      */
     public void scrollDiagonally(boolean direction, int start, int end, int offset, int rows, int speed, int step) {
-        command(Command.SET_VERTICAL_SCROLL_AREA, offset, rows);
-        command(direction ? Command.VERTICAL_AND_LEFT_HORIZONTAL_SCROLL : Command.VERTICAL_AND_RIGHT_HORIZONTAL_SCROLL, Constant.DUMMY_BYTE_00, start, speed, end, step);
+        beginBatch();
+
+        try {
+            command(Command.SET_VERTICAL_SCROLL_AREA, offset, rows);
+            command(direction ? Command.VERTICAL_AND_LEFT_HORIZONTAL_SCROLL : Command.VERTICAL_AND_RIGHT_HORIZONTAL_SCROLL, Constant.DUMMY_BYTE_00, start, speed, end, step);
+        } finally {
+            endBatch();
+        }
     }
 
     /**
@@ -332,6 +756,9 @@ public class SSD1306 {
     public void stopScroll() {
         scrolling = false;
         command(Command.DEACTIVATE_SCROLL);
+
+        // Scrolling moves the contents of the display RAM, so they no longer match what was last sent
+        invalidate();
     }
 
     /**
@@ -340,6 +767,7 @@ public class SSD1306 {
     public void startScroll() {
         scrolling = true;
         command(Command.ACTIVATE_SCROLL);
+        invalidate();
     }
 
     /**
@@ -575,17 +1003,50 @@ public class SSD1306 {
             return false;
         }
 
+        PageLocks locks = pageLocks;
+
+        if(locks == null) {
+            plot(x, y, on);
+        } else {
+            locks.lock(y / 8, y / 8);
+
+            try {
+                plot(x, y, on);
+            } finally {
+                locks.unlock(y / 8, y / 8);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Set a pixel in the buffer, and mark its page dirty.
+     *
+     * @param x The X position of the pixel to set, which must be within the display.
+     * @param y The Y position of the pixel to set, which must be within the display.
+     * @param on Whether to turn this pixel on or off.
+     */
+    private void plot(int x, int y, boolean on) {
         if(on) {
             buffer[x + (y / 8) * width] |= (byte) (1 << (y & 7));
         } else {
             buffer[x + (y / 8) * width] &= (byte) ~(1 << (y & 7));
         }
 
-        return true;
+        if(x < dirtyStart[y / 8]) {
+            dirtyStart[y / 8] = x;
+        }
+
+        if(x > dirtyEnd[y / 8]) {
+            dirtyEnd[y / 8] = x;
+        }
     }
 
     /**
      * Get the display buffer.
+     * <br/>
+     * The same array is returned until it is replaced by {@link #setBuffer(byte[])}; {@link #clear()} does not replace it.
      *
      * @return The display buffer.
      */
@@ -599,7 +1060,50 @@ public class SSD1306 {
      * @param buffer The buffer to set.
      */
     public void setBuffer(byte[] buffer) {
-        this.buffer = buffer;
+        lockPages(0, pages - 1);
+
+        try {
+            this.buffer = buffer;
+            markDirty();
+        } finally {
+            unlockPages(0, pages - 1);
+        }
+    }
+
+    /**
+     * Begin a batch of commands.
+     * <br/>
+     * Commands sent until the matching call to {@link #endBatch()} may be queued by the transport and sent together in a single transfer.
+     * Batches may be nested, and must always be ended, eg. in a <code>finally</code> block.
+     * <br/>
+     * The batch belongs to the calling thread: other threads sending to the display wait until it has ended,
+     * rather than having their commands queued into it.
+     */
+    public void beginBatch() {
+        // The transport holds its lock for the whole batch, so take the bus lock first, in the same order as sending does
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            transport.beginBatch();
+        } catch(RuntimeException e) {
+            busLock.unlock();
+
+            throw e;
+        }
+    }
+
+    /**
+     * End a batch of commands, sending any that are still queued if this is the outermost batch.
+     */
+    public void endBatch() {
+        try {
+            transport.endBatch();
+        } finally {
+            if(busLock.isHeldByCurrentThread()) {
+                busLock.unlock();
+            }
+        }
     }
 
     /**
@@ -621,6 +1125,17 @@ public class SSD1306 {
         transport.data(data);
     }
 
+    /**
+     * Send a range of pixel data to the display.
+     *
+     * @param data The array containing the data to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     */
+    public void data(byte[] data, int offset, int length) {
+        transport.data(data, offset, length);
+    }
+
     /**
      * Get the Graphics instance, creating it if necessary.
      *
@@ -634,6 +1149,226 @@ public class SSD1306 {
         return graphics;
     }
 
+    /**
+     * Create a new Graphics instance.
+     * <br/>
+     * A Graphics instance keeps scratch state between calls, so threads drawing in parallel should each use their own.
+     *
+     * @return A new Graphics instance.
+     *
+     * @see #setPageLocking(boolean)
+     */
+    public Graphics createGraphics() {
+        return new Graphics(this);
+    }
+
+    /**
+     * Send the changed regions of a frame to the display.
+     *
+     * @param source The frame to send, laid out in the same way as the buffer.
+     * @param start The first changed column of each page. This is reset once the frame has been sent.
+     * @param end The last changed column of each page. This is reset once the frame has been sent.
+     */
+    void flush(byte[] source, int[] start, int[] end) {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            if(shadowValid) {
+                for(int page = 0; page < pages; page++) {
+                    if(start[page] > end[page]) {
+                        continue;
+                    }
+
+                    int offset = page * width;
+                    int first = BufferDiff.firstMismatch(source, shadow, offset + start[page], offset + end[page] + 1);
+
+                    if(first < 0) {
+                        start[page] = width;
+                        end[page] = -1;
+                    } else {
+                        start[page] = first - offset;
+                        end[page] = BufferDiff.lastMismatch(source, shadow, first, offset + end[page] + 1) - offset;
+                    }
+                }
+            }
+
+            int windows = planner.plan(start, end, transport.getWindowOverhead());
+
+            if(windows == 0) {
+                return;
+            }
+
+            if(windows == 1 && planner.getStartCol(0) == 0 && planner.getEndCol(0) == width - 1
+                    && planner.getStartPage(0) == 0 && planner.getEndPage(0) == pages - 1) {
+                sendAll(source);
+            } else {
+                for(int i = 0; i < windows; i++) {
+                    sendWindow(source, planner.getStartCol(i), planner.getEndCol(i), planner.getStartPage(i), planner.getEndPage(i));
+                }
+            }
+
+            Arrays.fill(start, width);
+            Arrays.fill(end, -1);
+
+            // Jump start scrolling again if new data is written while enabled
+            if(isScrolling()) {
+                noOp();
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Send an entire frame to the display.
+     *
+     * @param source The frame to send.
+     */
+    private void sendAll(byte[] source) {
+        beginBatch();
+
+        try {
+            command(Command.SET_COLUMN_ADDRESS, 0, width - 1);
+            command(Command.SET_PAGE_ADDRESS, 0, pages - 1);
+        } finally {
+            endBatch();
+        }
+
+        data(source);
+        System.arraycopy(source, 0, shadow, 0, shadow.length);
+        shadowValid = true;
+    }
+
+    /**
+     * Send a window of a frame to the display.
+     *
+     * @param source The frame to send from.
+     * @param startCol The first column of the window.
+     * @param endCol The last column of the window.
+     * @param startPage The first page of the window.
+     * @param endPage The last page of the window.
+     */
+    private void sendWindow(byte[] source, int startCol, int endCol, int startPage, int endPage) {
+        int cols = endCol - startCol + 1;
+        int length = cols * (endPage - startPage + 1);
+
+        beginBatch();
+
+        try {
+            command(Command.SET_COLUMN_ADDRESS, startCol, endCol);
+            command(Command.SET_PAGE_ADDRESS, startPage, endPage);
+        } finally {
+            endBatch();
+        }
+
+        if(cols == width) {
+            // Full width windows are contiguous in the frame
+            data(source, startPage * width, length);
+            System.arraycopy(source, startPage * width, shadow, startPage * width, length);
+        } else {
+            for(int page = startPage; page <= endPage; page++) {
+                System.arraycopy(source, page * width + startCol, window, (page - startPage) * cols, cols);
+                System.arraycopy(source, page * width + startCol, shadow, page * width + startCol, cols);
+            }
+
+            data(window, 0, length);
+        }
+    }
+
+    /**
+     * Forget what was last sent to the display, and mark the entire buffer as changed,
+     * so that the next call to {@link #displayDirty()} sends all of it.
+     */
+    void invalidate() {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            shadowValid = false;
+            lockPages(0, pages - 1);
+
+            try {
+                markDirty();
+            } finally {
+                unlockPages(0, pages - 1);
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Mark the entire buffer as changed.
+     */
+    private void markDirty() {
+        Arrays.fill(dirtyStart, 0);
+        Arrays.fill(dirtyEnd, width - 1);
+    }
+
+    /**
+     * Move the changed regions of the buffer into the given arrays, and mark the buffer as unchanged.
+     *
+     * @param start Receives the first changed column of each page.
+     * @param end Receives the last changed column of each page.
+     */
+    void takeDirty(int[] start, int[] end) {
+        checkPagesNotHeld();
+        busLock.lock();
+
+        try {
+            lockPages(0, pages - 1);
+
+            try {
+                System.arraycopy(dirtyStart, 0, start, 0, pages);
+                System.arraycopy(dirtyEnd, 0, end, 0, pages);
+                markClean();
+            } finally {
+                unlockPages(0, pages - 1);
+            }
+        } finally {
+            busLock.unlock();
+        }
+    }
+
+    /**
+     * Make sure the calling thread holds no page lock before serialising with other threads sending to the display,
+     * which then lock every page. Taking the locks the other way round could deadlock against them.
+     *
+     * @throws IllegalStateException If the calling thread holds a page lock.
+     */
+    private void checkPagesNotHeld() {
+        PageLocks locks = pageLocks;
+
+        if(locks != null && locks.isHeldByCurrentThread()) {
+            throw new IllegalStateException("The display cannot be sent to while holding a page lock");
+        }
+    }
+
+    /**
+     * Copy the buffer and its changed regions into the snapshot while every page is locked, and mark the buffer as unchanged.
+     */
+    private void takeSnapshot() {
+        lockPages(0, pages - 1);
+
+        try {
+            System.arraycopy(buffer, 0, snapshot, 0, snapshot.length);
+            System.arraycopy(dirtyStart, 0, snapshotStart, 0, pages);
+            System.arraycopy(dirtyEnd, 0, snapshotEnd, 0, pages);
+            markClean();
+        } finally {
+            unlockPages(0, pages - 1);
+        }
+    }
+
+    /**
+     * Mark the entire buffer as unchanged.
+     */
+    private void markClean() {
+        Arrays.fill(dirtyStart, width);
+        Arrays.fill(dirtyEnd, -1);
+    }
+
     /**
      * Clamp the given value to a specified range.
      *
@@ -0,0 +1,272 @@
+package net.fauxpark.oled;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.fauxpark.oled.font.Font;
+
+/**
+ * A cache of pre-rendered text, for labels that are drawn over and over again.
+ * <br/>
+ * Each entry holds the page-packed columns of a string in a given font, rendered at a given vertical phase
+ * (the Y position modulo 8), so that drawing it again only has to merge bytes into the buffer.
+ * The cache is bounded by an approximate number of bytes, and evicts the least recently used entries to stay within it.
+ * A single cache may be shared between several {@link Graphics} instances.
+ *
+ * @author fauxpark
+ * @see Graphics#setTextCache(TextCache)
+ */
+public class TextCache {
+    /**
+     * The approximate fixed cost of an entry in bytes, covering the key, the entry and the map node.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * The maximum size of the cache in bytes.
+     */
+    private final long capacity;
+
+    /**
+     * The cached entries, in order of least to most recently used.
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The approximate current size of the cache in bytes.
+     */
+    private long size;
+
+    /**
+     * The number of lookups that found an entry.
+     */
+    private long hits;
+
+    /**
+     * The number of lookups that did not find an entry.
+     */
+    private long misses;
+
+    /**
+     * TextCache constructor.
+     *
+     * @param capacity The maximum size of the cache in bytes.
+     */
+    public TextCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the maximum size of the cache.
+     *
+     * @return The maximum size of the cache in bytes.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the current size of the cache.
+     *
+     * @return The approximate size of the cached entries in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return The number of cached entries.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of cache hits.
+     *
+     * @return The number of times text was drawn from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of cache misses.
+     *
+     * @return The number of times text had to be rendered because it was not in the cache.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Remove all entries from the cache, and reset the hit and miss counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Look up a rendered string.
+     *
+     * @param font The font the string is drawn in.
+     * @param text The string.
+     * @param phase The vertical phase the string is drawn at, from 0 to 7.
+     *
+     * @return The rendered string, or null if it is not in the cache.
+     */
+    synchronized Entry get(Font font, String text, int phase) {
+        Entry entry = entries.get(new Key(font, text, phase));
+
+        if(entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Add a rendered string to the cache, evicting the least recently used entries if it becomes too large.
+     * Entries larger than the cache itself are not added.
+     *
+     * @param font The font the string is drawn in.
+     * @param text The string.
+     * @param phase The vertical phase the string is drawn at, from 0 to 7.
+     * @param entry The rendered string.
+     */
+    synchronized void put(Font font, String text, int phase, Entry entry) {
+        long entrySize = sizeOf(text, entry);
+
+        if(entrySize > capacity) {
+            return;
+        }
+
+        Entry previous = entries.put(new Key(font, text, phase), entry);
+
+        if(previous != null) {
+            size -= sizeOf(text, previous);
+        }
+
+        size += entrySize;
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+
+        while(size > capacity && eldest.hasNext()) {
+            Map.Entry<Key, Entry> evicted = eldest.next();
+            size -= sizeOf(evicted.getKey().text, evicted.getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Estimate the size of an entry.
+     *
+     * @param text The string.
+     * @param entry The rendered string.
+     *
+     * @return The approximate size of the entry in bytes.
+     */
+    private static long sizeOf(String text, Entry entry) {
+        return ENTRY_OVERHEAD + text.length() * 2L + entry.bits.length * 2L;
+    }
+
+    /**
+     * A rendered string.
+     * <br/>
+     * The bits and masks are laid out in the same way as the display buffer: each row of <i>width</i> bytes is one page.
+     * A mask bit is set for every pixel the text covers, whether it is on or off.
+     */
+    static class Entry {
+        /**
+         * The width of the rendered string in pixels.
+         */
+        final int width;
+
+        /**
+         * The number of pages the rendered string spans.
+         */
+        final int pages;
+
+        /**
+         * The pixels of the rendered string.
+         */
+        final byte[] bits;
+
+        /**
+         * The pixels covered by the rendered string.
+         */
+        final byte[] masks;
+
+        /**
+         * Entry constructor.
+         *
+         * @param width The width of the rendered string in pixels.
+         * @param pages The number of pages the rendered string spans.
+         */
+        Entry(int width, int pages) {
+            this.width = width;
+            this.pages = pages;
+            bits = new byte[width * pages];
+            masks = new byte[width * pages];
+        }
+    }
+
+    /**
+     * The key of a cache entry.
+     * Fonts are compared with {@link Object#equals(Object)}, so that separate instances of the built-in fonts share entries,
+     * while any other font is identified by its instance. The glyph data is not used, as fonts that only implement
+     * {@link Font#getGlyphs()} return a new array on every call.
+     */
+    private static class Key {
+        /**
+         * The font.
+         */
+        private final Font font;
+
+        /**
+         * The string.
+         */
+        private final String text;
+
+        /**
+         * The vertical phase.
+         */
+        private final int phase;
+
+        /**
+         * Key constructor.
+         *
+         * @param font The font the string is drawn in.
+         * @param text The string.
+         * @param phase The vertical phase the string is drawn at.
+         */
+        private Key(Font font, String text, int phase) {
+            this.font = font;
+            this.text = text;
+            this.phase = phase;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return phase == key.phase && font.equals(key.font) && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return (font.hashCode() * 31 + text.hashCode()) * 31 + phase;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package net.fauxpark.oled;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A drawing surface larger than a single display, made up of several SSD1306 displays tiled together.
+ * <br/>
+ * Drawing is done on a buffer the size of the whole canvas, through {@link #getGraphics()} or {@link #setPixel(int, int, boolean)}.
+ * Each display, or tile, shows a rectangle of the canvas, and may be mounted rotated or mirrored.
+ * The canvas keeps track of the regions that have changed, in the same way as {@link SSD1306#displayDirty()},
+ * so {@link #update()} only copies changed regions into the tiles they fall on, and {@link #display()} only sends those tiles.
+ *
+ * @author fauxpark
+ */
+public class VirtualCanvas {
+    /**
+     * The offscreen surface holding the canvas buffer.
+     */
+    private final SSD1306 canvas;
+
+    /**
+     * The tiles, in the order they were added.
+     */
+    private final List<Tile> tiles = new ArrayList<>();
+
+    /**
+     * The first changed column of each page, taken from the canvas by {@link #update()}.
+     */
+    private final int[] dirtyStart;
+
+    /**
+     * The last changed column of each page, taken from the canvas by {@link #update()}.
+     */
+    private final int[] dirtyEnd;
+
+    /**
+     * VirtualCanvas constructor.
+     *
+     * @param width The width of the canvas in pixels.
+     * @param height The height of the canvas in pixels. This should be a multiple of 8.
+     */
+    public VirtualCanvas(int width, int height) {
+        canvas = new SSD1306(width, height);
+        dirtyStart = new int[height / 8];
+        dirtyEnd = new int[height / 8];
+    }
+
+    /**
+     * Add a tile.
+     * <br/>
+     * The tile covers the rectangle of the canvas starting at the given position, as wide and as tall as the display,
+     * or as tall and as wide if it is mounted sideways. Tiles should not overlap.
+     * The whole tile is copied to the display on the next call to {@link #update()}.
+     *
+     * @param ssd1306 The display showing the tile.
+     * @param x The X position of the top left corner of the tile on the canvas.
+     * @param y The Y position of the top left corner of the tile on the canvas.
+     * @param orientation The way the display is mounted.
+     */
+    public synchronized void addTile(SSD1306 ssd1306, int x, int y, Orientation orientation) {
+        Tile tile = new Tile(ssd1306, x, y, orientation);
+        tiles.add(tile);
+        canvas.markDirty(x, x + tile.width - 1, Math.floorDiv(y, 8), Math.floorDiv(y + tile.height - 1, 8));
+    }
+
+    /**
+     * Get the displays making up the canvas.
+     *
+     * @return The display of each tile, in the order they were added.
+     */
+    public synchronized List<SSD1306> getTiles() {
+        List<SSD1306> displays = new ArrayList<>();
+
+        for(Tile tile : tiles) {
+            displays.add(tile.ssd1306);
+        }
+
+        return Collections.unmodifiableList(displays);
+    }
+
+    /**
+     * Get the width of the canvas.
+     *
+     * @return The canvas width in pixels.
+     */
+    public int getWidth() {
+        return canvas.getWidth();
+    }
+
+    /**
+     * Get the height of the canvas.
+     *
+     * @return The canvas height in pixels.
+     */
+    public int getHeight() {
+        return canvas.getHeight();
+    }
+
+    /**
+     * Get the Graphics instance for drawing on the canvas.
+     *
+     * @return The Graphics instance.
+     */
+    public Graphics getGraphics() {
+        return canvas.getGraphics();
+    }
+
+    /**
+     * Get a pixel on the canvas.
+     *
+     * @param x The X position of the pixel.
+     * @param y The Y position of the pixel.
+     *
+     * @return False if the pixel is "off" or the given coordinates are out of bounds, true if the pixel is "on".
+     */
+    public boolean getPixel(int x, int y) {
+        return canvas.getPixel(x, y);
+    }
+
+    /**
+     * Set a pixel on the canvas.
+     *
+     * @param x The X position of the pixel to set.
+     * @param y The Y position of the pixel to set.
+     * @param on Whether to turn this pixel on or off.
+     *
+     * @return False if the given coordinates are out of bounds.
+     */
+    public boolean setPixel(int x, int y, boolean on) {
+        return canvas.setPixel(x, y, on);
+    }
+
+    /**
+     * Clear the canvas.
+     * <br/>
+     * NOTE: This does not clear the displays, you must manually call {@link #display()}.
+     */
+    public void clear() {
+        canvas.clear();
+    }
+
+    /**
+     * Copy the regions of the canvas that have changed since the last update into the buffers of the tiles they fall on.
+     * <br/>
+     * The changed regions of each tile's buffer are marked dirty, so they can then be sent with {@link SSD1306#displayDirty()},
+     * for example by a {@link DisplayManager} to refresh tiles on different buses in parallel.
+     *
+     * @return The displays whose buffers were changed, in the order their tiles were added.
+     */
+    public synchronized List<SSD1306> update() {
+        canvas.takeDirty(dirtyStart, dirtyEnd);
+        byte[] source = canvas.getBuffer();
+        int width = canvas.getWidth();
+        int pages = dirtyStart.length;
+        List<SSD1306> changed = new ArrayList<>();
+
+        for(Tile tile : tiles) {
+            int firstPage = Math.max(0, Math.floorDiv(tile.y, 8));
+            int lastPage = Math.min(pages - 1, Math.floorDiv(tile.y + tile.height - 1, 8));
+            boolean touched = false;
+
+            for(int page = firstPage; page <= lastPage; page++) {
+                int x0 = Math.max(dirtyStart[page], tile.x);
+                int x1 = Math.min(dirtyEnd[page], tile.x + tile.width - 1);
+                int y0 = Math.max(page * 8, tile.y);
+                int y1 = Math.min(page * 8 + 7, tile.y + tile.height - 1);
+
+                if(x0 > x1 || y0 > y1) {
+                    continue;
+                }
+
+                tile.copy(source, width, x0, x1, y0, y1);
+                touched = true;
+            }
+
+            if(touched) {
+                changed.add(tile.ssd1306);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Update the tiles, and send the changed regions of each tile that changed to its display.
+     * <br/>
+     * Tiles are sent one after another; to refresh tiles on different buses in parallel,
+     * call {@link #update()} followed by {@link DisplayManager#displayAll()} instead.
+     */
+    public synchronized void display() {
+        for(SSD1306 ssd1306 : update()) {
+            ssd1306.displayDirty();
+        }
+    }
+
+    /**
+     * A rectangle of the canvas shown on a display.
+     */
+    private static final class Tile {
+        /**
+         * The display showing the tile.
+         */
+        private final SSD1306 ssd1306;
+
+        /**
+         * The X position of the tile on the canvas.
+         */
+        private final int x;
+
+        /**
+         * The Y position of the tile on the canvas.
+         */
+        private final int y;
+
+        /**
+         * The way the display is mounted.
+         */
+        private final Orientation orientation;
+
+        /**
+         * The width of the tile on the canvas.
+         */
+        private final int width;
+
+        /**
+         * The height of the tile on the canvas.
+         */
+        private final int height;
+
+        /**
+         * Tile constructor.
+         *
+         * @param ssd1306 The display showing the tile.
+         * @param x The X position of the tile on the canvas.
+         * @param y The Y position of the tile on the canvas.
+         * @param orientation The way the display is mounted.
+         */
+        Tile(SSD1306 ssd1306, int x, int y, Orientation orientation) {
+            this.ssd1306 = ssd1306;
+            this.x = x;
+            this.y = y;
+            this.orientation = orientation;
+            width = orientation.isSideways() ? ssd1306.getHeight() : ssd1306.getWidth();
+            height = orientation.isSideways() ? ssd1306.getWidth() : ssd1306.getHeight();
+        }
+
+        /**
+         * Copy a region of the canvas lying within a single page into the display buffer, and mark it dirty.
+         * The pages of the display being written are locked for the duration, as when drawing with {@link Graphics}.
+         * <br/>
+         * When the tile is not sideways and starts on a page boundary, the page maps onto a single page of the display,
+         * so whole bytes are copied, bit-reversed if the display is upside down. Otherwise pixels are copied one at a time.
+         *
+         * @param source The canvas buffer.
+         * @param stride The width of the canvas.
+         * @param x0 The first column of the region on the canvas.
+         * @param x1 The last column of the region on the canvas.
+         * @param y0 The first row of the region on the canvas.
+         * @param y1 The last row of the region on the canvas.
+         */
+        void copy(byte[] source, int stride, int x0, int x1, int y0, int y1) {
+            int panelWidth = ssd1306.getWidth();
+            int panelHeight = ssd1306.getHeight();
+            byte[] target = ssd1306.getBuffer();
+            int u0 = x0 - x;
+            int u1 = x1 - x;
+            int v0 = y0 - y;
+            int v1 = y1 - y;
+
+            int px0 = panelX(u0, v0, panelWidth);
+            int px1 = panelX(u1, v1, panelWidth);
+            int py0 = panelY(u0, v0, panelHeight);
+            int py1 = panelY(u1, v1, panelHeight);
+            int startPage = Math.min(py0, py1) / 8;
+            int endPage = Math.max(py0, py1) / 8;
+            ssd1306.lockPages(startPage, endPage);
+
+            try {
+                if(!orientation.isSideways() && (y & 7) == 0 && (panelHeight & 7) == 0) {
+                    int row = (y0 / 8) * stride;
+                    boolean mirrored = orientation == Orientation.FLIP_HORIZONTAL || orientation == Orientation.ROTATE_180;
+                    boolean reversed = orientation == Orientation.FLIP_VERTICAL || orientation == Orientation.ROTATE_180;
+                    int mask = (0xFF << (y0 & 7)) & (0xFF >>> (7 - (y1 & 7)));
+                    int page = v0 / 8;
+
+                    if(reversed) {
+                        mask = Integer.reverse(mask) >>> 24;
+                        page = panelHeight / 8 - 1 - page;
+                    }
+
+                    for(int u = u0; u <= u1; u++) {
+                        int bits = source[row + x + u] & 0xFF;
+
+                        if(reversed) {
+                            bits = Integer.reverse(bits) >>> 24;
+                        }
+
+                        int i = page * panelWidth + (mirrored ? panelWidth - 1 - u : u);
+                        target[i] = (byte) ((target[i] & ~mask) | (bits & mask));
+                    }
+                } else {
+                    for(int v = v0; v <= v1; v++) {
+                        int row = ((y + v) / 8) * stride;
+                        int bit = 1 << ((y + v) & 7);
+
+                        for(int u = u0; u <= u1; u++) {
+                            int panelX = panelX(u, v, panelWidth);
+                            int panelY = panelY(u, v, panelHeight);
+                            boolean on = (source[row + x + u] & bit) != 0;
+                            int i = panelX + (panelY / 8) * panelWidth;
+
+                            if(on) {
+                                target[i] |= (byte) (1 << (panelY & 7));
+                            } else {
+                                target[i] &= (byte) ~(1 << (panelY & 7));
+                            }
+                        }
+                    }
+                }
+
+                ssd1306.markDirty(Math.min(px0, px1), Math.max(px0, px1), startPage, endPage);
+            } finally {
+                ssd1306.unlockPages(startPage, endPage);
+            }
+        }
+
+        /**
+         * Map a position on the tile to a column of the display.
+         *
+         * @param u The X position on the tile.
+         * @param v The Y position on the tile.
+         * @param panelWidth The width of the display.
+         *
+         * @return The X position on the display.
+         */
+        private int panelX(int u, int v, int panelWidth) {
+            switch(orientation) {
+                case ROTATE_90:
+                    return v;
+                case ROTATE_180:
+                case FLIP_HORIZONTAL:
+                    return panelWidth - 1 - u;
+                case ROTATE_270:
+                    return panelWidth - 1 - v;
+                default:
+                    return u;
+            }
+        }
+
+        /**
+         * Map a position on the tile to a row of the display.
+         *
+         * @param u The X position on the tile.
+         * @param v The Y position on the tile.
+         * @param panelHeight The height of the display.
+         *
+         * @return The Y position on the display.
+         */
+        private int panelY(int u, int v, int panelHeight) {
+            switch(orientation) {
+                case ROTATE_90:
+                    return panelHeight - 1 - u;
+                case ROTATE_180:
+                case FLIP_VERTICAL:
+                    return panelHeight - 1 - v;
+                case ROTATE_270:
+                    return u;
+                default:
+                    return v;
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package net.fauxpark.oled.asset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.fauxpark.oled.Bitmap;
+import net.fauxpark.oled.font.Font;
+
+/**
+ * A read-only pack of bitmaps and fonts, already converted to the SSD1306 page-packed layout.
+ * <br/>
+ * Packs are produced offline by {@link AssetPackWriter}, and memory-mapped when opened, so loading them costs little
+ * more than a page fault per asset, and the file is shared in the page cache by every process that opens it.
+ * <br/>
+ * The format is big-endian, and laid out as follows:
+ * <ul>
+ * <li>The magic number <code>OLED</code>, a 16-bit version and a 16-bit entry count.</li>
+ * <li>For each entry: an 8-bit type, a 16-bit length and the UTF-8 name, the 16-bit width (or glyph columns),
+ * the 16-bit height (or glyph rows), 8 bits of flags, for fonts a 16-bit length and the ASCII character set name,
+ * and then the 32-bit offset and length of its data, relative to the end of the entry table.</li>
+ * <li>The data of each entry. Bitmaps are their page-packed pixels, followed by the mask if they have one.
+ * Fonts are the columns of 256 glyphs, each <i>ceil(rows / 8)</i> bytes long with the top row in the least significant bit
+ * of the first byte.</li>
+ * </ul>
+ *
+ * @author fauxpark
+ */
+public class AssetPack implements Closeable {
+    /**
+     * The magic number at the start of every pack, "OLED" in ASCII.
+     */
+    static final int MAGIC = 0x4F4C4544;
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The entry type of a bitmap.
+     */
+    static final int TYPE_BITMAP = 0;
+
+    /**
+     * The entry type of a font.
+     */
+    static final int TYPE_FONT = 1;
+
+    /**
+     * The entry flag indicating that a bitmap has a mask.
+     */
+    static final int FLAG_MASK = 0x01;
+
+    /**
+     * The channel the pack is mapped from.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped contents of the pack.
+     */
+    private final MappedByteBuffer mapped;
+
+    /**
+     * The entries of the pack, keyed by name.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * AssetPack constructor.
+     *
+     * @param channel The channel to map the pack from.
+     *
+     * @throws IOException If the pack cannot be mapped or is not a valid asset pack.
+     */
+    private AssetPack(FileChannel channel) throws IOException {
+        this.channel = channel;
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        try {
+            if(mapped.getInt() != MAGIC) {
+                throw new IOException("Not an asset pack");
+            }
+
+            int version = mapped.getShort() & 0xFFFF;
+
+            if(version != VERSION) {
+                throw new IOException("Unsupported asset pack version " + version);
+            }
+
+            int count = mapped.getShort() & 0xFFFF;
+
+            for(int i = 0; i < count; i++) {
+                Entry entry = new Entry();
+                entry.type = mapped.get() & 0xFF;
+                String name = readString(mapped, StandardCharsets.UTF_8);
+                entry.width = mapped.getShort() & 0xFFFF;
+                entry.height = mapped.getShort() & 0xFFFF;
+                entry.flags = mapped.get() & 0xFF;
+
+                if(entry.type == TYPE_FONT) {
+                    entry.charset = readString(mapped, StandardCharsets.US_ASCII);
+                }
+
+                entry.offset = mapped.getInt();
+                entry.length = mapped.getInt();
+                entries.put(name, entry);
+            }
+
+            int dataStart = mapped.position();
+
+            for(Entry entry : entries.values()) {
+                entry.offset += dataStart;
+
+                if(entry.offset < dataStart || entry.length < 0 || (long) entry.offset + entry.length > mapped.limit()) {
+                    throw new IOException("Asset pack is truncated");
+                }
+
+                if(entry.type == TYPE_FONT && entry.length != fontSize(entry.width, entry.height)) {
+                    throw new IOException("Asset pack font has " + entry.length + " bytes of glyph data, expected " + fontSize(entry.width, entry.height));
+                }
+            }
+        } catch(RuntimeException e) {
+            throw new IOException("Asset pack is corrupt", e);
+        }
+    }
+
+    /**
+     * Open and map an asset pack.
+     *
+     * @param path The path of the pack.
+     *
+     * @return The opened pack.
+     *
+     * @throws IOException If the pack cannot be read or is not a valid asset pack.
+     */
+    public static AssetPack open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            return new AssetPack(channel);
+        } catch(IOException e) {
+            channel.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Get the names of the assets in the pack.
+     *
+     * @return The names of the assets, in the order they were written.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Get a bitmap from the pack.
+     * <br/>
+     * The pixels are copied out of the mapped file on each call, so callers should keep the result rather than
+     * calling this every frame.
+     *
+     * @param name The name of the bitmap.
+     *
+     * @return The bitmap, or null if there is no bitmap with that name.
+     */
+    public Bitmap getBitmap(String name) {
+        Entry entry = entries.get(name);
+
+        if(entry == null || entry.type != TYPE_BITMAP) {
+            return null;
+        }
+
+        int size = entry.width * ((entry.height + 7) / 8);
+        ByteBuffer data = mapped.duplicate();
+        data.position(entry.offset);
+        byte[] pixels = new byte[Math.min(size, entry.length)];
+        data.get(pixels);
+        byte[] mask = null;
+
+        if((entry.flags & FLAG_MASK) != 0 && entry.length >= size * 2) {
+            mask = new byte[size];
+            data.get(mask);
+        }
+
+        return new Bitmap(entry.width, entry.height, pixels, mask);
+    }
+
+    /**
+     * Get a font from the pack.
+     *
+     * @param name The name of the font.
+     *
+     * @return The font, or null if there is no font with that name.
+     */
+    public Font getFont(String name) {
+        Entry entry = entries.get(name);
+
+        if(entry == null || entry.type != TYPE_FONT) {
+            return null;
+        }
+
+        ByteBuffer data = mapped.duplicate();
+        data.position(entry.offset);
+        data.limit(entry.offset + entry.length);
+
+        return new PackedFont(entry.charset, entry.width, entry.height, data.slice());
+    }
+
+    /**
+     * Close the pack. Bitmaps and fonts already taken from it remain usable.
+     *
+     * @throws IOException If the underlying channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Get the size of the glyph data of a font.
+     *
+     * @param columns The number of columns in each glyph.
+     * @param rows The number of rows in each glyph.
+     *
+     * @return The size of 256 glyphs of packed columns in bytes.
+     */
+    static long fontSize(int columns, int rows) {
+        return 256L * columns * ((rows + 7) / 8);
+    }
+
+    /**
+     * Read a string prefixed by its 16-bit length.
+     *
+     * @param buffer The buffer to read from.
+     * @param charset The character set of the string.
+     *
+     * @return The string.
+     */
+    private static String readString(ByteBuffer buffer, Charset charset) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+
+        return new String(bytes, charset);
+    }
+
+    /**
+     * An entry in the table of a pack.
+     */
+    private static class Entry {
+        /**
+         * The type of the entry.
+         */
+        private int type;
+
+        /**
+         * The width of the bitmap, or the number of columns in each glyph of the font.
+         */
+        private int width;
+
+        /**
+         * The height of the bitmap, or the number of rows in each glyph of the font.
+         */
+        private int height;
+
+        /**
+         * The flags of the entry.
+         */
+        private int flags;
+
+        /**
+         * The character set of the font.
+         */
+        private String charset;
+
+        /**
+         * The absolute offset of the data of the entry.
+         */
+        private int offset;
+
+        /**
+         * The length of the data of the entry.
+         */
+        private int length;
+    }
+}
@@ -0,0 +1,326 @@
+package net.fauxpark.oled.asset;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import net.fauxpark.oled.Bitmap;
+import net.fauxpark.oled.Dither;
+import net.fauxpark.oled.font.Font;
+
+/**
+ * Builds {@link AssetPack}s offline, converting images to bitmaps and fonts to packed glyph columns.
+ * <br/>
+ * It can also be run from the command line:
+ * <pre>
+ * java -cp oled-core.jar net.fauxpark.oled.asset.AssetPackWriter assets.pack [--dither MODE] [name=]icon.png ...
+ *     [--font name charset columns rows sheet.png] ...
+ * </pre>
+ * Images are named after their file name without the extension, unless a name is given.
+ * The dither mode applies to the images that follow it. Font sheets are a grid of 16 by 16 glyph cells,
+ * each <i>columns</i> by <i>rows</i> pixels, ordered from the top left.
+ *
+ * @author fauxpark
+ */
+public class AssetPackWriter {
+    /**
+     * The number of glyph cells in each row and column of a font sheet.
+     */
+    private static final int SHEET_CELLS = 16;
+
+    /**
+     * The entries to write, keyed by name.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Add a bitmap to the pack, replacing any asset with the same name.
+     *
+     * @param name The name of the bitmap.
+     * @param bitmap The bitmap.
+     *
+     * @return This writer.
+     */
+    public AssetPackWriter addBitmap(String name, Bitmap bitmap) {
+        int size = bitmap.getWidth() * ((bitmap.getHeight() + 7) / 8);
+        boolean masked = bitmap.getMask() != null;
+        byte[] data = new byte[masked ? size * 2 : size];
+        System.arraycopy(bitmap.getData(), 0, data, 0, size);
+
+        if(masked) {
+            System.arraycopy(bitmap.getMask(), 0, data, size, size);
+        }
+
+        entries.put(name, new Entry(AssetPack.TYPE_BITMAP, bitmap.getWidth(), bitmap.getHeight(), masked ? AssetPack.FLAG_MASK : 0, null, data));
+
+        return this;
+    }
+
+    /**
+     * Convert an image to a bitmap and add it to the pack, replacing any asset with the same name.
+     *
+     * @param name The name of the bitmap.
+     * @param image The image to convert.
+     * @param dither The dithering mode to use.
+     *
+     * @return This writer.
+     *
+     * @see Bitmap#fromImage(BufferedImage, Dither)
+     */
+    public AssetPackWriter addImage(String name, BufferedImage image, Dither dither) {
+        return addBitmap(name, Bitmap.fromImage(image, dither));
+    }
+
+    /**
+     * Add a font to the pack, replacing any asset with the same name.
+     *
+     * @param name The name of the font.
+     * @param font The font, which must have 256 glyphs.
+     *
+     * @return This writer.
+     *
+     * @throws IllegalArgumentException If the font does not have 256 glyphs.
+     */
+    public AssetPackWriter addFont(String name, Font font) {
+        byte[] data = font.getGlyphData();
+
+        if(data.length != AssetPack.fontSize(font.getColumns(), font.getRows())) {
+            throw new IllegalArgumentException("Font " + name + " does not have 256 glyphs");
+        }
+
+        entries.put(name, new Entry(AssetPack.TYPE_FONT, font.getColumns(), font.getRows(), 0, font.getName(), data.clone()));
+
+        return this;
+    }
+
+    /**
+     * Convert a font sheet to a font and add it to the pack, replacing any asset with the same name.
+     *
+     * @param name The name of the font.
+     * @param sheet An image of 16 by 16 glyph cells, ordered from the top left.
+     * @param charset The name of the font's character set.
+     * @param columns The number of columns each glyph is comprised of.
+     * @param rows The number of rows each glyph is comprised of. Values greater than 32 will be clamped.
+     *
+     * @return This writer.
+     */
+    public AssetPackWriter addFontSheet(String name, BufferedImage sheet, String charset, int columns, int rows) {
+        // Converted in the same way as images, with transparent pixels left off
+        Bitmap pixels = Bitmap.fromImage(sheet, Dither.NONE);
+        byte[] mask = pixels.getMask();
+        int clampedRows = Math.min(rows, 32);
+        int[] glyphs = new int[SHEET_CELLS * SHEET_CELLS * columns];
+
+        for(int glyph = 0; glyph < SHEET_CELLS * SHEET_CELLS; glyph++) {
+            int cellX = (glyph % SHEET_CELLS) * columns;
+            int cellY = (glyph / SHEET_CELLS) * rows;
+
+            for(int col = 0; col < columns; col++) {
+                int column = 0;
+
+                for(int row = 0; row < clampedRows; row++) {
+                    int x = cellX + col;
+                    int y = cellY + row;
+
+                    if(pixels.getPixel(x, y) && (mask == null || (mask[x + (y / 8) * pixels.getWidth()] & (1 << (y & 7))) != 0)) {
+                        column |= 1 << row;
+                    }
+                }
+
+                glyphs[glyph * columns + col] = column;
+            }
+        }
+
+        return addFont(name, new PackedFont(charset, columns, clampedRows, glyphs));
+    }
+
+    /**
+     * Write the pack.
+     *
+     * @param out The stream to write the pack to.
+     *
+     * @throws IOException If the pack cannot be written.
+     * @throws IllegalArgumentException If there are more than 65535 assets, or a name, width or height does not fit in 16 bits.
+     */
+    public void write(OutputStream out) throws IOException {
+        if(entries.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Too many assets for an asset pack: " + entries.size());
+        }
+
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        DataOutputStream tableOut = new DataOutputStream(table);
+        int offset = 0;
+
+        for(Map.Entry<String, Entry> named : entries.entrySet()) {
+            Entry entry = named.getValue();
+            tableOut.writeByte(entry.type);
+            writeString(tableOut, named.getKey().getBytes(StandardCharsets.UTF_8));
+            writeShort(tableOut, entry.width, "Width");
+            writeShort(tableOut, entry.height, "Height");
+            tableOut.writeByte(entry.flags);
+
+            if(entry.type == AssetPack.TYPE_FONT) {
+                writeString(tableOut, entry.charset.getBytes(StandardCharsets.US_ASCII));
+            }
+
+            tableOut.writeInt(offset);
+            tableOut.writeInt(entry.data.length);
+            offset += entry.data.length;
+        }
+
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(AssetPack.MAGIC);
+        dataOut.writeShort(AssetPack.VERSION);
+        dataOut.writeShort(entries.size());
+        table.writeTo(dataOut);
+
+        for(Entry entry : entries.values()) {
+            dataOut.write(entry.data);
+        }
+
+        dataOut.flush();
+    }
+
+    /**
+     * Write the pack to a file.
+     *
+     * @param path The path of the file to write.
+     *
+     * @throws IOException If the pack cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        try(OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Build a pack from the command line.
+     *
+     * @param args The output path, followed by images, dither modes and font sheets as described above.
+     *
+     * @throws IOException If an image cannot be read or the pack cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: AssetPackWriter <output> [--dither MODE] [name=]image.png ... [--font name charset columns rows sheet.png] ...");
+
+            return;
+        }
+
+        AssetPackWriter writer = new AssetPackWriter();
+        Dither dither = Dither.NONE;
+
+        for(int i = 1; i < args.length; i++) {
+            if(args[i].equals("--dither") && i + 1 < args.length) {
+                dither = Dither.valueOf(args[++i].toUpperCase());
+            } else if(args[i].equals("--font") && i + 5 < args.length) {
+                BufferedImage sheet = ImageIO.read(Paths.get(args[i + 5]).toFile());
+                writer.addFontSheet(args[i + 1], sheet, args[i + 2], Integer.parseInt(args[i + 3]), Integer.parseInt(args[i + 4]));
+                i += 5;
+            } else {
+                int equals = args[i].indexOf('=');
+                Path path = Paths.get(equals < 0 ? args[i] : args[i].substring(equals + 1));
+                String name = equals < 0 ? path.getFileName().toString().replaceFirst("\\.[^.]*$", "") : args[i].substring(0, equals);
+                writer.addImage(name, ImageIO.read(path.toFile()), dither);
+            }
+        }
+
+        writer.write(Paths.get(args[0]));
+    }
+
+    /**
+     * Write a string prefixed by its 16-bit length.
+     *
+     * @param out The stream to write to.
+     * @param bytes The encoded string.
+     *
+     * @throws IOException If the string cannot be written.
+     */
+    private static void writeString(DataOutputStream out, byte[] bytes) throws IOException {
+        writeShort(out, bytes.length, "String length");
+        out.write(bytes);
+    }
+
+    /**
+     * Write an unsigned 16-bit value.
+     *
+     * @param out The stream to write to.
+     * @param value The value, from 0 to 65535.
+     * @param what What the value is, for the exception message.
+     *
+     * @throws IOException If the value cannot be written.
+     * @throws IllegalArgumentException If the value does not fit in 16 bits.
+     */
+    private static void writeShort(DataOutputStream out, int value, String what) throws IOException {
+        if(value < 0 || value > 0xFFFF) {
+            throw new IllegalArgumentException(what + " " + value + " does not fit in an asset pack");
+        }
+
+        out.writeShort(value);
+    }
+
+    /**
+     * An entry waiting to be written.
+     */
+    private static class Entry {
+        /**
+         * The type of the entry.
+         */
+        private final int type;
+
+        /**
+         * The width of the bitmap, or the number of columns in each glyph of the font.
+         */
+        private final int width;
+
+        /**
+         * The height of the bitmap, or the number of rows in each glyph of the font.
+         */
+        private final int height;
+
+        /**
+         * The flags of the entry.
+         */
+        private final int flags;
+
+        /**
+         * The character set of the font, or null for bitmaps.
+         */
+        private final String charset;
+
+        /**
+         * The data of the entry.
+         */
+        private final byte[] data;
+
+        /**
+         * Entry constructor.
+         *
+         * @param type The type of the entry.
+         * @param width The width of the bitmap, or the number of columns in each glyph of the font.
+         * @param height The height of the bitmap, or the number of rows in each glyph of the font.
+         * @param flags The flags of the entry.
+         * @param charset The character set of the font, or null for bitmaps.
+         * @param data The data of the entry.
+         */
+        private Entry(int type, int width, int height, int flags, String charset, byte[] data) {
+            this.type = type;
+            this.width = width;
+            this.height = height;
+            this.flags = flags;
+            this.charset = charset;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.fauxpark.oled.asset;
+
+import java.nio.ByteBuffer;
+
+import net.fauxpark.oled.font.Font;
+
+/**
+ * A {@link Font} loaded from an {@link AssetPack}, or converted from a font sheet by an {@link AssetPackWriter}.
+ *
+ * @author fauxpark
+ */
+class PackedFont implements Font {
+    /**
+     * The name of the font's character set.
+     */
+    private final String name;
+
+    /**
+     * The number of columns each glyph is comprised of.
+     */
+    private final int columns;
+
+    /**
+     * The number of rows each glyph is comprised of.
+     */
+    private final int rows;
+
+    /**
+     * The font glyphs, packed into bytes.
+     */
+    private final byte[] glyphs;
+
+    /**
+     * PackedFont constructor.
+     *
+     * @param name The name of the font's character set.
+     * @param columns The number of columns each glyph is comprised of.
+     * @param rows The number of rows each glyph is comprised of.
+     * @param glyphs The font glyphs.
+     */
+    PackedFont(String name, int columns, int rows, int[] glyphs) {
+        this.name = name;
+        this.columns = columns;
+        this.rows = rows;
+        this.glyphs = Font.pack(glyphs, rows);
+    }
+
+    /**
+     * PackedFont constructor.
+     *
+     * @param name The name of the font's character set.
+     * @param columns The number of columns each glyph is comprised of.
+     * @param rows The number of rows each glyph is comprised of.
+     * @param data The packed glyph columns, each <i>ceil(rows / 8)</i> bytes long, least significant byte first.
+     */
+    PackedFont(String name, int columns, int rows, ByteBuffer data) {
+        this.name = name;
+        this.columns = columns;
+        this.rows = rows;
+        glyphs = new byte[data.remaining()];
+        data.get(glyphs);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public byte[] getGlyphData() {
+        return glyphs;
+    }
+}
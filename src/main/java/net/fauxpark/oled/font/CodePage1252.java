@@ -23,9 +23,9 @@ public class CodePage1252 implements Font {
     private static final int ROWS = 8;
 
     /**
-     * The font glyphs.
+     * The font glyphs, packed one byte per column.
      */
-    private static final int[] GLYPHS = {
+    private static final byte[] GLYPHS = Font.pack(new int[] {
         0x00, 0x00, 0x00, 0x00, 0x00,
         0x00, 0x00, 0x00, 0x00, 0x00,
         0x00, 0x00, 0x00, 0x00, 0x00,
@@ -282,7 +282,7 @@ public class CodePage1252 implements Font {
         0x4C, 0x90, 0x92, 0x91, 0x7C,
         0xFF, 0x28, 0x44, 0x44, 0x38,
         0x4C, 0x91, 0x90, 0x91, 0x7C
-    };
+    }, ROWS);
 
     @Override
     public String getName() {
@@ -300,7 +300,18 @@ public class CodePage1252 implements Font {
     }
 
     @Override
-    public int[] getGlyphs() {
+    public byte[] getGlyphData() {
         return GLYPHS;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        // Every instance draws the same glyphs
+        return o != null && o.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
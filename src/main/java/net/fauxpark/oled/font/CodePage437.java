@@ -23,9 +23,9 @@ public class CodePage437 implements Font {
     private static final int ROWS = 8;
 
     /**
-     * The font glyphs.
+     * The font glyphs, packed one byte per column.
      */
-    private static final int[] GLYPHS = {
+    private static final byte[] GLYPHS = Font.pack(new int[] {
         0x00, 0x00, 0x00, 0x00, 0x00,
         0x3E, 0x6B, 0x4F, 0x6B, 0x3E,
         0xC1, 0x94, 0xB0, 0x94, 0xC1,
@@ -282,7 +282,7 @@ public class CodePage437 implements Font {
         0x00, 0x00, 0x09, 0x0D, 0x0A,
         0x00, 0x38, 0x38, 0x38, 0x00,
         0x00, 0x00, 0x00, 0x00, 0x00
-    };
+    }, ROWS);
 
     @Override
     public String getName() {
@@ -300,7 +300,18 @@ public class CodePage437 implements Font {
     }
 
     @Override
-    public int[] getGlyphs() {
+    public byte[] getGlyphData() {
         return GLYPHS;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        // Every instance draws the same glyphs
+        return o != null && o.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
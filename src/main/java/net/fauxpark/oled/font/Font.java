@@ -3,9 +3,16 @@ package net.fauxpark.oled.font;
 /**
  * A basic interface to facilitate font selection in text drawing methods.
  * <br/>
- * These fonts generally include 256 glyphs, comprised of <i>columns</i> integer values containing <i>rows</i> bits of information.
+ * These fonts generally include 256 glyphs, comprised of <i>columns</i> values containing <i>rows</i> bits of information.
  * An "on" bit in the value represents an "on" bit in the display RAM (and thus, in normal display mode, a lit pixel).
  * The top of a glyph is the least significant bit of each column.
+ * <br/>
+ * Glyph data is stored packed into bytes: each column takes {@link #getBytesPerColumn()} bytes, least significant byte first,
+ * so a font of 8 rows or fewer uses a single byte per column, in the same layout as a page of the display buffer.
+ * Implementations must override at least one of {@link #getGlyphData()} and {@link #getGlyphs()}, and should override
+ * {@link #getGlyphData()}, returning the same array on every call. Older implementations that only override
+ * {@link #getGlyphs()} still work, but their glyphs are packed on every call. A font that overrides neither throws an
+ * {@link UnsupportedOperationException} when its glyphs are first used.
  *
  * @author fauxpark
  */
@@ -35,6 +42,87 @@ public interface Font {
      * Get the glyph data for the font.
      *
      * @return An array of ints representing the columns for each glyph.
+     *
+     * @throws UnsupportedOperationException If the font overrides neither this method nor {@link #getGlyphData()}.
+     *
+     * @deprecated Use {@link #getGlyphData()}, which stores each column in as few bytes as the font's height needs.
+     * The default implementation unpacks the glyph data into a new array on every call.
+     */
+    @Deprecated
+    default int[] getGlyphs() {
+        byte[] data;
+        GlyphDefaults.beginUnpacking(this);
+
+        try {
+            data = getGlyphData();
+        } finally {
+            GlyphDefaults.endUnpacking();
+        }
+
+        int bytesPerColumn = getBytesPerColumn();
+        int[] glyphs = new int[data.length / bytesPerColumn];
+
+        for(int i = 0; i < glyphs.length; i++) {
+            for(int b = 0; b < bytesPerColumn; b++) {
+                glyphs[i] |= (data[i * bytesPerColumn + b] & 0xFF) << (b * 8);
+            }
+        }
+
+        return glyphs;
+    }
+
+    /**
+     * Get the packed glyph data for the font.
+     * <br/>
+     * The default implementation packs the result of {@link #getGlyphs()} into a new array on every call.
+     *
+     * @return An array of bytes holding the columns of each glyph, each {@link #getBytesPerColumn()} bytes long.
+     *
+     * @throws UnsupportedOperationException If the font overrides neither this method nor {@link #getGlyphs()}.
+     */
+    @SuppressWarnings("deprecation")
+    default byte[] getGlyphData() {
+        return pack(getGlyphs(), getRows());
+    }
+
+    /**
+     * Get the number of bytes each glyph column is stored in.
+     *
+     * @return The font's row count divided by 8, rounded up.
+     */
+    default int getBytesPerColumn() {
+        return (getRows() + 7) / 8;
+    }
+
+    /**
+     * Get the offset of a glyph in the glyph data.
+     *
+     * @param glyph The index of the glyph, usually its code in the font's character set.
+     *
+     * @return The index of the first byte of the glyph's first column.
      */
-    int[] getGlyphs();
+    default int getGlyphOffset(int glyph) {
+        return glyph * getColumns() * getBytesPerColumn();
+    }
+
+    /**
+     * Pack glyph columns into bytes.
+     *
+     * @param glyphs An array of ints representing the columns for each glyph.
+     * @param rows The number of rows in the font.
+     *
+     * @return An array of bytes holding each column in <i>ceil(rows / 8)</i> bytes, least significant byte first.
+     */
+    static byte[] pack(int[] glyphs, int rows) {
+        int bytesPerColumn = (rows + 7) / 8;
+        byte[] data = new byte[glyphs.length * bytesPerColumn];
+
+        for(int i = 0; i < glyphs.length; i++) {
+            for(int b = 0; b < bytesPerColumn; b++) {
+                data[i * bytesPerColumn + b] = (byte) (glyphs[i] >>> (b * 8));
+            }
+        }
+
+        return data;
+    }
 }
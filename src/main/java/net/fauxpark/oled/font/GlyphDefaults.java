@@ -0,0 +1,42 @@
+package net.fauxpark.oled.font;
+
+/**
+ * Support for the default methods of {@link Font}, which implement {@link Font#getGlyphs()} and {@link Font#getGlyphData()}
+ * in terms of each other.
+ *
+ * @author fauxpark
+ */
+final class GlyphDefaults {
+    /**
+     * Indicates whether the calling thread is inside the default {@link Font#getGlyphs()}, so that a font overriding neither
+     * method is reported rather than recursing until the stack overflows.
+     */
+    private static final ThreadLocal<Boolean> UNPACKING = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * GlyphDefaults constructor.
+     */
+    private GlyphDefaults() {}
+
+    /**
+     * Mark the calling thread as unpacking glyph data.
+     *
+     * @param font The font being unpacked.
+     *
+     * @throws UnsupportedOperationException If the calling thread is already unpacking, as the font overrides neither method.
+     */
+    static void beginUnpacking(Font font) {
+        if(UNPACKING.get()) {
+            throw new UnsupportedOperationException(font.getClass().getName() + " must override getGlyphData() or getGlyphs()");
+        }
+
+        UNPACKING.set(true);
+    }
+
+    /**
+     * Mark the calling thread as no longer unpacking glyph data.
+     */
+    static void endUnpacking() {
+        UNPACKING.set(false);
+    }
+}
@@ -1,5 +1,8 @@
 package net.fauxpark.oled.transport;
 
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
 import com.pi4j.Pi4J;
 import com.pi4j.context.Context;
 import com.pi4j.io.gpio.digital.DigitalOutput;
@@ -8,6 +11,8 @@ import com.pi4j.library.pigpio.PiGpio;
 import com.pi4j.plugin.pigpio.provider.gpio.digital.PiGpioDigitalOutputProvider;
 import com.pi4j.plugin.pigpio.provider.i2c.PiGpioI2CProvider;
 
+import net.fauxpark.oled.Command;
+
 /**
  * A {@link Transport} implementation that utilises I<sup>2</sup>C.
  *
@@ -19,6 +24,28 @@ public class I2CTransport implements Transport {
      */
     private static final int DC_BIT = 6;
 
+    /**
+     * The approximate cost of addressing a window. The address commands are streamed in a single transfer,
+     * and each transfer incurs a few bytes' worth of software latency on top of its address and control bytes at 400kHz.
+     */
+    private static final int WINDOW_OVERHEAD = 16;
+
+    /**
+     * The initial size of the command queue, large enough for the startup sequence.
+     */
+    private static final int QUEUE_SIZE = 64;
+
+    /**
+     * The initial size of the staging buffer, large enough for a full 128x64 frame and its control byte.
+     */
+    private static final int STAGING_SIZE = 1025;
+
+    /**
+     * The transfer sizes tried when probing, from largest to smallest.
+     * These cover a full 128x64 frame, the common kernel and adapter limits, and the SMBus block size.
+     */
+    private static final int[] PROBE_SIZES = { 1025, 512, 256, 255, 128, 64, 33, 32, 16 };
+
     /**
      * The internal Pi4J context.
      */
@@ -34,6 +61,37 @@ public class I2CTransport implements Transport {
      */
     private final I2C i2c;
 
+    /**
+     * Guards the command queue and the bus. This is a lock rather than a monitor, so that a virtual thread waiting for another's transfer,
+     * or sleeping during a reset, does not pin its carrier thread. The transfer itself is a native call, which does pin it.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * A reusable buffer for prepending the control byte to data.
+     */
+    private byte[] staging = new byte[STAGING_SIZE];
+
+    /**
+     * The queue of command bytes waiting to be sent, following a single control byte.
+     */
+    private byte[] queue = new byte[QUEUE_SIZE];
+
+    /**
+     * The number of bytes in the command queue, including the control byte.
+     */
+    private int queued = 1;
+
+    /**
+     * The nesting depth of the current command batch. Only the thread holding the lock has a batch open.
+     */
+    private int batchDepth;
+
+    /**
+     * The maximum number of bytes in a single transfer, including the control byte.
+     */
+    private int maxTransferSize;
+
     /**
      * I2CTransport constructor.
      *
@@ -42,6 +100,20 @@ public class I2CTransport implements Transport {
      * @param address The I<sup>2</sup>C address of the display.
      */
     public I2CTransport(int rstPin, int bus, int address) {
+        this(rstPin, bus, address, Integer.MAX_VALUE);
+    }
+
+    /**
+     * I2CTransport constructor.
+     *
+     * @param rstPin The GPIO pin to use for the RST line.
+     * @param bus The I<sup>2</sup>C bus to use.
+     * @param address The I<sup>2</sup>C address of the display.
+     * @param maxTransferSize The maximum number of bytes the I<sup>2</sup>C adapter can send in a single transfer.
+     */
+    public I2CTransport(int rstPin, int bus, int address, int maxTransferSize) {
+        setMaxTransferSize(maxTransferSize);
+
         var gpio = PiGpio.newNativeInstance();
         this.context = Pi4J.newContextBuilder()
             .noAutoDetectProviders()
@@ -65,41 +137,210 @@ public class I2CTransport implements Transport {
 
     @Override
     public void reset() {
+        lock.lock();
+
         try {
-            rstPin.high();
-            Thread.sleep(1);
-            rstPin.low();
-            Thread.sleep(10);
-            rstPin.high();
-        } catch(InterruptedException e) {
-            e.printStackTrace();
+            flush();
+
+            try {
+                rstPin.high();
+                Thread.sleep(1);
+                rstPin.low();
+                Thread.sleep(10);
+            } catch(InterruptedException e) {
+                // Leave the interrupt for the caller to act on, but never leave the display held in reset
+                Thread.currentThread().interrupt();
+            } finally {
+                rstPin.high();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void shutdown() {
-        context.shutdown();
+        lock.lock();
+
+        try {
+            flush();
+            context.shutdown();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void command(int command, int... params) {
-        byte[] commandBytes = new byte[params.length + 2];
-        commandBytes[0] = (byte) (0 << DC_BIT);
-        commandBytes[1] = (byte) command;
+        lock.lock();
 
-        for(int i = 0; i < params.length; i++) {
-            commandBytes[i + 2] = (byte) params[i];
-        }
+        try {
+            // Commands are never split across transfers, so send what is queued if this one will not fit
+            if(queued + params.length + 1 > maxTransferSize) {
+                flush();
+            }
+
+            if(queue.length < queued + params.length + 1) {
+                queue = Arrays.copyOf(queue, Math.max(queue.length * 2, queued + params.length + 1));
+            }
 
-        i2c.write(commandBytes);
+            queue[queued++] = (byte) command;
+
+            for(int param : params) {
+                queue[queued++] = (byte) param;
+            }
+
+            if(batchDepth == 0) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void data(byte[] data) {
-        byte[] dataBytes = new byte[data.length + 1];
-        dataBytes[0] = (byte) (1 << DC_BIT);
+        data(data, 0, data.length);
+    }
+
+    @Override
+    public void data(byte[] data, int offset, int length) {
+        lock.lock();
+
+        try {
+            flush();
+            int chunkSize = Math.min(length, maxTransferSize - 1);
+            byte[] dataBytes = stage(chunkSize + 1);
+            dataBytes[0] = (byte) (1 << DC_BIT);
+
+            // Each chunk carries its own control byte; the display continues writing from where the previous one left off
+            for(int sent = 0; sent < length; sent += chunkSize) {
+                int chunk = Math.min(chunkSize, length - sent);
+                System.arraycopy(data, offset + sent, dataBytes, 1, chunk);
+                i2c.write(dataBytes, 0, chunk + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the maximum transfer size.
+     *
+     * @return The maximum number of bytes sent in a single transfer, including the control byte.
+     */
+    public int getMaxTransferSize() {
+        return maxTransferSize;
+    }
+
+    /**
+     * Set the maximum transfer size. Pixel data larger than this is split into chunks, each with its own control byte.
+     *
+     * @param maxTransferSize The maximum number of bytes the I<sup>2</sup>C adapter can send in a single transfer.
+     * Values less than 8 will be clamped, as at least one command and all of its parameters must fit in a transfer.
+     */
+    public void setMaxTransferSize(int maxTransferSize) {
+        lock.lock();
+
+        try {
+            this.maxTransferSize = Math.max(8, maxTransferSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Find the largest transfer the I<sup>2</sup>C adapter will accept, and use it as the maximum transfer size.
+     * <br/>
+     * Each candidate size is tried by sending a stream of no-op commands, which has no effect on the display.
+     *
+     * @return The maximum transfer size found.
+     */
+    public int probeMaxTransferSize() {
+        lock.lock();
+
+        try {
+            flush();
+            byte[] probe = stage(PROBE_SIZES[0]);
+
+            for(int size : PROBE_SIZES) {
+                probe[0] = (byte) (0 << DC_BIT);
+                Arrays.fill(probe, 1, size, (byte) Command.NOOP);
+
+                try {
+                    i2c.write(probe, 0, size);
+                    setMaxTransferSize(size);
+
+                    return size;
+                } catch(RuntimeException e) {
+                    // Pi4J providers report oversized transfers as unchecked exceptions; try the next size down
+                }
+            }
+
+            setMaxTransferSize(PROBE_SIZES[PROBE_SIZES.length - 1]);
+
+            return maxTransferSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * The bus stays locked until the matching call to {@link #endBatch()}, so commands from other threads
+     * wait for the batch to be sent rather than joining it.
+     */
+    @Override
+    public void beginBatch() {
+        lock.lock();
+        batchDepth++;
+    }
+
+    @Override
+    public void endBatch() {
+        if(!lock.isHeldByCurrentThread() || batchDepth == 0) {
+            return;
+        }
+
+        try {
+            if(--batchDepth == 0) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getWindowOverhead() {
+        return WINDOW_OVERHEAD;
+    }
+
+    /**
+     * Send any queued command bytes in a single transfer.
+     * As the Co bit of the control byte is clear, the display treats every following byte as a command or parameter.
+     */
+    private void flush() {
+        if(queued > 1) {
+            queue[0] = (byte) (0 << DC_BIT);
+            i2c.write(queue, 0, queued);
+            queued = 1;
+        }
+    }
+
+    /**
+     * Get the staging buffer, growing it if it is too small.
+     *
+     * @param length The number of bytes required.
+     *
+     * @return A buffer of at least the given length.
+     */
+    private byte[] stage(int length) {
+        if(staging.length < length) {
+            staging = new byte[length];
+        }
 
-        System.arraycopy(data, 0, dataBytes, 1, data.length);
-        i2c.write(dataBytes);
+        return staging;
     }
 }
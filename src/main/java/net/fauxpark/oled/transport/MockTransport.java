@@ -1,10 +1,96 @@
 package net.fauxpark.oled.transport;
+
+import java.util.concurrent.TimeUnit;
+
+import net.fauxpark.oled.Command;
+
 /**
  * A {@link Transport} implementation that does nothing. This is useful for testing on platforms other than the Raspberry Pi.
+ * <br/>
+ * It does, however, keep count of what is sent, and simulates the display RAM in horizontal addressing mode,
+ * so that the effect of the column and page address windows can be observed. Command batches are counted
+ * as a single transfer, as they would be by a transport that queues them.
+ * <br/>
+ * A latency can be added to every transfer, to simulate the time spent on a real bus.
  *
  * @author fauxpark
  */
 public class MockTransport implements Transport {
+    /**
+     * The number of columns in the display RAM.
+     */
+    private static final int RAM_COLUMNS = 128;
+
+    /**
+     * The number of pages in the display RAM.
+     */
+    private static final int RAM_PAGES = 8;
+
+    /**
+     * The simulated display RAM.
+     */
+    private final byte[] ram = new byte[RAM_COLUMNS * RAM_PAGES];
+
+    /**
+     * The start column of the address window.
+     */
+    private int startCol;
+
+    /**
+     * The end column of the address window.
+     */
+    private int endCol = RAM_COLUMNS - 1;
+
+    /**
+     * The start page of the address window.
+     */
+    private int startPage;
+
+    /**
+     * The end page of the address window.
+     */
+    private int endPage = RAM_PAGES - 1;
+
+    /**
+     * The current column address pointer.
+     */
+    private int col;
+
+    /**
+     * The current page address pointer.
+     */
+    private int page;
+
+    /**
+     * The number of commands sent.
+     */
+    private int commandCount;
+
+    /**
+     * The number of bytes of pixel data sent.
+     */
+    private long dataCount;
+
+    /**
+     * The number of bus transfers made.
+     */
+    private int transferCount;
+
+    /**
+     * The nesting depth of the current command batch.
+     */
+    private int batchDepth;
+
+    /**
+     * Indicates whether commands have been queued in the current batch.
+     */
+    private boolean queued;
+
+    /**
+     * The time each transfer takes, in nanoseconds.
+     */
+    private long latency;
+
     @Override
     public void reset() {}
 
@@ -12,8 +98,150 @@ public class MockTransport implements Transport {
     public void shutdown() {}
 
     @Override
-    public void command(int command, int... params) {}
+    public void command(int command, int... params) {
+        commandCount++;
+
+        if(batchDepth == 0) {
+            transfer();
+        } else {
+            queued = true;
+        }
+
+        if(command == Command.SET_COLUMN_ADDRESS && params.length == 2) {
+            startCol = params[0] % RAM_COLUMNS;
+            endCol = params[1] % RAM_COLUMNS;
+            col = startCol;
+        } else if(command == Command.SET_PAGE_ADDRESS && params.length == 2) {
+            startPage = params[0] % RAM_PAGES;
+            endPage = params[1] % RAM_PAGES;
+            page = startPage;
+        }
+    }
 
     @Override
-    public void data(byte[] data) {}
+    public void data(byte[] data) {
+        data(data, 0, data.length);
+    }
+
+    @Override
+    public void data(byte[] data, int offset, int length) {
+        flush();
+        transfer();
+        dataCount += length;
+
+        for(int i = offset; i < offset + length; i++) {
+            ram[page * RAM_COLUMNS + col] = data[i];
+
+            if(++col > endCol) {
+                col = startCol;
+
+                if(++page > endPage) {
+                    page = startPage;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    @Override
+    public void endBatch() {
+        if(batchDepth > 0 && --batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Get the simulated display RAM.
+     *
+     * @return The contents of the display RAM, laid out in the same way as the SSD1306 buffer for a 128x64 display.
+     */
+    public byte[] getRam() {
+        return ram;
+    }
+
+    /**
+     * Get the number of commands sent.
+     *
+     * @return The number of calls to {@link #command(int, int...)} since creation or the last call to {@link #resetCounters()}.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Get the amount of pixel data sent.
+     *
+     * @return The number of bytes of pixel data sent since creation or the last call to {@link #resetCounters()}.
+     */
+    public long getDataCount() {
+        return dataCount;
+    }
+
+    /**
+     * Get the number of bus transfers made.
+     *
+     * @return The number of command and data transfers since creation or the last call to {@link #resetCounters()}.
+     */
+    public int getTransferCount() {
+        return transferCount;
+    }
+
+    /**
+     * Get the simulated latency of each transfer.
+     *
+     * @return The time each transfer takes, in nanoseconds.
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Set the simulated latency of each transfer.
+     * <br/>
+     * The calling thread sleeps for this long on every command or data transfer, as it would while blocked on a real bus.
+     *
+     * @param latency The time each transfer takes.
+     * @param unit The unit of the latency.
+     */
+    public void setLatency(long latency, TimeUnit unit) {
+        this.latency = Math.max(0, unit.toNanos(latency));
+    }
+
+    /**
+     * Reset the command, data and transfer counters.
+     */
+    public void resetCounters() {
+        commandCount = 0;
+        dataCount = 0;
+        transferCount = 0;
+    }
+
+    /**
+     * Count any commands queued in the current batch as a single transfer.
+     */
+    private void flush() {
+        if(queued) {
+            transfer();
+            queued = false;
+        }
+    }
+
+    /**
+     * Count a transfer, and wait for the simulated latency.
+     */
+    private void transfer() {
+        transferCount++;
+
+        if(latency > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
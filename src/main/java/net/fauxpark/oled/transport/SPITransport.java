@@ -1,5 +1,8 @@
 package net.fauxpark.oled.transport;
 
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
 import com.pi4j.Pi4J;
 import com.pi4j.context.Context;
 import com.pi4j.io.gpio.digital.DigitalOutput;
@@ -14,6 +17,17 @@ import com.pi4j.plugin.pigpio.provider.spi.PiGpioSpiProvider;
  * @author fauxpark
  */
 public class SPITransport implements Transport {
+    /**
+     * The approximate cost of addressing a window. The address commands are a single SPI write,
+     * but at 8MHz the latency of a write call and a D/C toggle far exceeds the time taken to clock out a byte.
+     */
+    private static final int WINDOW_OVERHEAD = 32;
+
+    /**
+     * The initial size of the command queue, large enough for the startup sequence.
+     */
+    private static final int QUEUE_SIZE = 64;
+
     /**
      * The internal Pi4J context.
      */
@@ -34,6 +48,27 @@ public class SPITransport implements Transport {
      */
     private final Spi spi;
 
+    /**
+     * Guards the command queue, the D/C line and the bus. Virtual threads can unmount while waiting for it, unlike a monitor,
+     * though not during the transfer itself, which is a native call.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The queue of command bytes waiting to be sent.
+     */
+    private byte[] queue = new byte[QUEUE_SIZE];
+
+    /**
+     * The number of command bytes waiting to be sent.
+     */
+    private int queued;
+
+    /**
+     * The nesting depth of the current command batch. Only the thread holding the lock has a batch open.
+     */
+    private int batchDepth;
+
     /**
      * SPITransport constructor.
      *
@@ -70,34 +105,128 @@ public class SPITransport implements Transport {
 
     @Override
     public void reset() {
+        lock.lock();
+
         try {
-            rstPin.high();
-            Thread.sleep(1);
-            rstPin.low();
-            Thread.sleep(10);
-            rstPin.high();
-        } catch(InterruptedException e) {
-            e.printStackTrace();
+            flush();
+
+            try {
+                rstPin.high();
+                Thread.sleep(1);
+                rstPin.low();
+                Thread.sleep(10);
+            } catch(InterruptedException e) {
+                // Leave the interrupt for the caller to act on, but never leave the display held in reset
+                Thread.currentThread().interrupt();
+            } finally {
+                rstPin.high();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void shutdown() {
-        context.shutdown();
+        lock.lock();
+
+        try {
+            flush();
+            context.shutdown();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void command(int command, int... params) {
-        dcPin.low();
-        spi.write((byte) command);
-        for(int param : params) {
-            spi.write((byte) param);
+        lock.lock();
+
+        try {
+            if(queue.length < queued + params.length + 1) {
+                queue = Arrays.copyOf(queue, Math.max(queue.length * 2, queued + params.length + 1));
+            }
+
+            queue[queued++] = (byte) command;
+
+            for(int param : params) {
+                queue[queued++] = (byte) param;
+            }
+
+            if(batchDepth == 0) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void data(byte[] data) {
-        dcPin.high();
-        spi.write(data);
+        lock.lock();
+
+        try {
+            flush();
+            dcPin.high();
+            spi.write(data);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void data(byte[] data, int offset, int length) {
+        lock.lock();
+
+        try {
+            flush();
+            dcPin.high();
+            spi.write(data, offset, length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * The bus stays locked until the matching call to {@link #endBatch()}, so commands from other threads
+     * wait for the batch to be sent rather than joining it.
+     */
+    @Override
+    public void beginBatch() {
+        lock.lock();
+        batchDepth++;
+    }
+
+    @Override
+    public void endBatch() {
+        if(!lock.isHeldByCurrentThread() || batchDepth == 0) {
+            return;
+        }
+
+        try {
+            if(--batchDepth == 0) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getWindowOverhead() {
+        return WINDOW_OVERHEAD;
+    }
+
+    /**
+     * Send any queued command bytes in a single SPI write.
+     */
+    private void flush() {
+        if(queued > 0) {
+            dcPin.low();
+            spi.write(queue, 0, queued);
+            queued = 0;
+        }
     }
 }
@@ -1,5 +1,7 @@
 package net.fauxpark.oled.transport;
 
+import java.util.Arrays;
+
 /**
  * An interface for defining transports.
  *
@@ -30,4 +32,43 @@ public interface Transport {
      * @param data The data to send.
      */
     void data(byte[] data);
+
+    /**
+     * Send a range of pixel data to the display.
+     * <br/>
+     * Implementations should send directly from the given array, without copying it into a new one.
+     *
+     * @param data The array containing the data to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     */
+    default void data(byte[] data, int offset, int length) {
+        data(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    /**
+     * Begin a batch of commands.
+     * <br/>
+     * Until the matching call to {@link #endBatch()}, the transport may queue commands and send them together,
+     * either before the next pixel data or when the batch ends. Batches may be nested, in which case the commands
+     * are held until the outermost batch ends.
+     */
+    default void beginBatch() {}
+
+    /**
+     * End a batch of commands, sending any that are still queued if this is the outermost batch.
+     */
+    default void endBatch() {}
+
+    /**
+     * Get the approximate cost of addressing a new window of the display RAM, expressed as a number of bytes of pixel data.
+     * <br/>
+     * This accounts for the column and page address commands as well as any per-transfer overhead of the bus,
+     * and is used to decide whether several small windows or one larger one is cheaper to send.
+     *
+     * @return The window overhead in bytes.
+     */
+    default int getWindowOverhead() {
+        return 16;
+    }
 }
@@ -0,0 +1,57 @@
+package net.fauxpark.oled;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BufferDiffTests {
+    @Test
+    public void givenIdenticalArrays_whenDiffed_thenNoMismatch() {
+        // given
+        byte[] a = new byte[128];
+        byte[] b = new byte[128];
+
+        // when
+        int first = BufferDiff.firstMismatch(a, b, 0, a.length);
+        int last = BufferDiff.lastMismatch(a, b, 0, a.length);
+
+        // then
+        assertThat(first).isEqualTo(-1);
+        assertThat(last).isEqualTo(-1);
+    }
+
+    @Test
+    public void givenDifferencesAtEveryOffset_whenDiffed_thenMismatchesFound() {
+        for(int from = 0; from < 9; from++) {
+            for(int to = from + 1; to <= 40; to++) {
+                for(int i = from; i < to; i++) {
+                    // given
+                    byte[] a = new byte[40];
+                    byte[] b = new byte[40];
+                    a[i] = 1;
+
+                    // then
+                    assertThat(BufferDiff.firstMismatch(a, b, from, to)).isEqualTo(i);
+                    assertThat(BufferDiff.lastMismatch(a, b, from, to)).isEqualTo(i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void givenDifferencesOutsideRange_whenDiffed_thenIgnored() {
+        // given
+        byte[] a = new byte[64];
+        byte[] b = new byte[64];
+        a[3] = 1;
+        a[60] = 1;
+
+        // when
+        int first = BufferDiff.firstMismatch(a, b, 4, 60);
+        int last = BufferDiff.lastMismatch(a, b, 4, 60);
+
+        // then
+        assertThat(first).isEqualTo(-1);
+        assertThat(last).isEqualTo(-1);
+    }
+}
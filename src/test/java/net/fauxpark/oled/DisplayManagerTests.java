@@ -0,0 +1,195 @@
+package net.fauxpark.oled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import net.fauxpark.oled.transport.MockTransport;
+
+public class DisplayManagerTests {
+    private static final int BUSES = 4;
+
+    private static final int DISPLAYS_PER_BUS = 2;
+
+    private static final long DATA_MILLIS = 50;
+
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> maxActive = new ConcurrentHashMap<>();
+
+    private final List<MockTransport> transports = new ArrayList<>();
+
+    private final List<SSD1306> displays = new ArrayList<>();
+
+    private DisplayManager underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new DisplayManager();
+
+        for(int bus = 0; bus < BUSES; bus++) {
+            String name = "i2c-" + bus;
+            active.put(name, new AtomicInteger());
+            maxActive.put(name, new AtomicInteger());
+
+            for(int i = 0; i < DISPLAYS_PER_BUS; i++) {
+                MockTransport transport = new SlowTransport(name);
+                SSD1306 ssd1306 = new SSD1306(128, 64, transport);
+                transports.add(transport);
+                displays.add(ssd1306);
+                underTest.add(name, ssd1306);
+            }
+        }
+
+        underTest.startupAll(false);
+    }
+
+    @Test
+    public void givenDisplaysOnSeveralBuses_whenDisplayAll_thenBusesFlushedInParallel() {
+        // given
+        for(int i = 0; i < displays.size(); i++) {
+            displays.get(i).setPixel(i, i, true);
+        }
+
+        // when
+        long start = System.nanoTime();
+        underTest.displayAll();
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        // then
+        assertThat(elapsed).isLessThan(DATA_MILLIS * BUSES * DISPLAYS_PER_BUS / 2);
+
+        for(int i = 0; i < displays.size(); i++) {
+            assertThat(transports.get(i).getRam()).isEqualTo(displays.get(i).getBuffer());
+        }
+    }
+
+    @Test
+    public void givenDisplaysSharingBus_whenDisplayAll_thenBusNeverUsedConcurrently() {
+        // given
+        for(SSD1306 ssd1306 : displays) {
+            ssd1306.setPixel(0, 0, true);
+        }
+
+        // when
+        underTest.displayAll();
+
+        // then
+        for(AtomicInteger max : maxActive.values()) {
+            assertThat(max.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void givenManager_whenGetBuses_thenListedInOrderAdded() {
+        // then
+        assertThat(underTest.getBuses()).containsExactly("i2c-0", "i2c-1", "i2c-2", "i2c-3");
+        assertThat(underTest.getDisplays("i2c-1")).containsExactly(displays.get(2), displays.get(3));
+        assertThat(underTest.getDisplays("spi-0")).isEmpty();
+    }
+
+    @Test
+    public void givenThreadFactory_whenDisplayAll_thenEachBusUsesThreadFromFactory() {
+        // given
+        AtomicInteger created = new AtomicInteger();
+        DisplayManager manager = new DisplayManager(r -> {
+            created.incrementAndGet();
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        Map<String, String> threadNames = new ConcurrentHashMap<>();
+
+        for(String bus : new String[] { "i2c-0", "spi-0" }) {
+            manager.add(bus, new SSD1306(128, 64, new MockTransport() {
+                @Override
+                public void data(byte[] data, int offset, int length) {
+                    threadNames.put(bus, Thread.currentThread().getName());
+                    super.data(data, offset, length);
+                }
+            }));
+        }
+
+        // when
+        manager.startupAll(false);
+        manager.shutdownAll();
+
+        // then
+        assertThat(created.get()).isEqualTo(2);
+        assertThat(threadNames).containsEntry("i2c-0", "SSD1306 bus i2c-0").containsEntry("spi-0", "SSD1306 bus spi-0");
+    }
+
+    @Test
+    public void givenFailingDisplay_whenDisplayAll_thenFailureReportedAndOtherBusesFlushed() {
+        // given
+        AtomicBoolean failing = new AtomicBoolean(true);
+        underTest.add("i2c-" + BUSES, new SSD1306(128, 64, new MockTransport() {
+            @Override
+            public void data(byte[] data, int offset, int length) {
+                if(failing.get()) {
+                    throw new IllegalStateException("Bus error");
+                }
+
+                super.data(data, offset, length);
+            }
+        }));
+
+        for(SSD1306 ssd1306 : displays) {
+            ssd1306.setPixel(0, 0, true);
+        }
+
+        // when
+        Throwable thrown = catchThrowable(underTest::displayAll);
+        failing.set(false);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessageContaining("1 of " + (displays.size() + 1));
+        assertThat(thrown.getCause()).hasMessage("Bus error");
+
+        for(int i = 0; i < displays.size(); i++) {
+            assertThat(transports.get(i).getRam()).isEqualTo(displays.get(i).getBuffer());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        underTest.shutdownAll();
+    }
+
+    /**
+     * A mock transport that takes a while to send pixel data, and records how many transfers are in progress on its bus.
+     */
+    private class SlowTransport extends MockTransport {
+        private final String bus;
+
+        SlowTransport(String bus) {
+            this.bus = bus;
+        }
+
+        @Override
+        public void data(byte[] data, int offset, int length) {
+            int now = active.get(bus).incrementAndGet();
+            maxActive.get(bus).accumulateAndGet(now, Math::max);
+
+            try {
+                Thread.sleep(DATA_MILLIS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            super.data(data, offset, length);
+            active.get(bus).decrementAndGet();
+        }
+    }
+}
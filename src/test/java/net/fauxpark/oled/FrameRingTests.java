@@ -0,0 +1,215 @@
+package net.fauxpark.oled;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.fauxpark.oled.font.CodePage437;
+import net.fauxpark.oled.transport.MockTransport;
+
+public class FrameRingTests {
+    private static final long DATA_MILLIS = 5;
+
+    private MockTransport transport;
+
+    private volatile boolean failing;
+
+    private SSD1306 ssd1306;
+
+    private FrameRing underTest;
+
+    @BeforeEach
+    void setUp() {
+        transport = new MockTransport() {
+            @Override
+            public void data(byte[] data, int offset, int length) {
+                if(failing) {
+                    throw new IllegalStateException("Bus error");
+                }
+
+                try {
+                    Thread.sleep(DATA_MILLIS);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                super.data(data, offset, length);
+            }
+        };
+        ssd1306 = new SSD1306(128, 64, transport);
+        ssd1306.startup(false);
+        underTest = new FrameRing(ssd1306, 3);
+    }
+
+    @Test
+    public void givenPublishedFrames_whenStopped_thenLastFrameOnDisplay() {
+        // given
+        underTest.start();
+        byte[] last = null;
+
+        for(int i = 0; i < 20; i++) {
+            FrameRing.Frame frame;
+
+            while((frame = underTest.acquire()) == null) {
+                Thread.onSpinWait();
+            }
+
+            frame.clear();
+            frame.getGraphics().text(i, 10, new CodePage437(), "Frame " + i);
+            last = frame.getBuffer().clone();
+            underTest.publish(frame);
+        }
+
+        // when
+        underTest.stop();
+
+        // then
+        assertThat(transport.getRam()).isEqualTo(last);
+        assertThat(underTest.getFlushedCount()).isEqualTo(underTest.getPublishedCount()).isEqualTo(20);
+        assertThat(underTest.getOccupancy()).isZero();
+    }
+
+    @Test
+    public void givenRingFull_whenAcquire_thenNullAndDropped() {
+        // given
+        for(int i = 0; i < 3; i++) {
+            underTest.publish(underTest.acquire());
+        }
+
+        // when
+        FrameRing.Frame frame = underTest.acquire();
+
+        // then
+        assertThat(frame).isNull();
+        assertThat(underTest.getDroppedCount()).isEqualTo(1);
+        assertThat(underTest.getOccupancy()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenFramesPublishedInOrder_whenFlushed_thenSentInOrder() {
+        // given
+        FrameRing.Frame first = underTest.acquire();
+        FrameRing.Frame second = underTest.acquire();
+        second.clear();
+        second.getGraphics().rectangle(10, 10, 20, 20, true);
+        first.clear();
+        first.getGraphics().rectangle(50, 10, 20, 20, true);
+        underTest.publish(first);
+        underTest.publish(second);
+
+        // when
+        underTest.start();
+        underTest.stop();
+
+        // then
+        assertThat(transport.getRam()).isEqualTo(second.getBuffer());
+    }
+
+    @Test
+    public void givenConcurrentProducers_whenStopped_thenEveryFrameSent() throws InterruptedException {
+        // given
+        underTest.start();
+        Thread[] producers = new Thread[3];
+
+        for(int p = 0; p < producers.length; p++) {
+            int row = p * 16;
+            producers[p] = new Thread(() -> {
+                for(int i = 0; i < 10; i++) {
+                    FrameRing.Frame frame;
+
+                    while((frame = underTest.acquire()) == null) {
+                        Thread.onSpinWait();
+                    }
+
+                    frame.clear();
+                    frame.getGraphics().rectangle(i * 8, row, 8, 8, true);
+                    underTest.publish(frame);
+                }
+            });
+            producers[p].start();
+        }
+
+        for(Thread producer : producers) {
+            producer.join();
+        }
+
+        // when
+        underTest.stop();
+
+        // then
+        assertThat(underTest.getPublishedCount()).isEqualTo(30);
+        assertThat(underTest.getFlushedCount()).isEqualTo(30);
+        assertThat(underTest.getOccupancy()).isZero();
+    }
+
+    @Test
+    public void givenDiscardedFrame_whenAcquire_thenFrameReused() {
+        // given
+        FrameRing.Frame frame = underTest.acquire();
+        underTest.acquire();
+        underTest.acquire();
+
+        // when
+        underTest.discard(frame);
+
+        // then
+        assertThat(underTest.acquire()).isSameAs(frame);
+        assertThat(underTest.getOccupancy()).isZero();
+    }
+
+    @Test
+    public void givenSlowBus_whenFlushed_thenLatencyIncludesTransfer() {
+        // given
+        FrameRing.Frame frame = underTest.acquire();
+        frame.clear();
+        frame.getGraphics().line(0, 0, 127, 63);
+
+        // when
+        underTest.start();
+        underTest.publish(frame);
+        underTest.stop();
+
+        // then
+        assertThat(underTest.getLastLatency()).isGreaterThanOrEqualTo(DATA_MILLIS * 1000000);
+        assertThat(underTest.getMaxLatency()).isEqualTo(underTest.getLastLatency());
+        assertThat(underTest.getAverageLatency()).isEqualTo(underTest.getLastLatency());
+    }
+
+    @Test
+    public void givenFailingBus_whenFlushed_thenFailureCountedAndNextFrameSentWhole() {
+        // given
+        underTest.start();
+        failing = true;
+        FrameRing.Frame frame = underTest.acquire();
+        frame.clear();
+        frame.getGraphics().line(0, 0, 127, 63);
+        underTest.publish(frame);
+        underTest.stop();
+        failing = false;
+        transport.resetCounters();
+
+        // when
+        underTest.start();
+        frame = underTest.acquire();
+        frame.clear();
+        frame.getGraphics().line(0, 0, 127, 63);
+        underTest.publish(frame);
+        underTest.stop();
+
+        // then
+        assertThat(underTest.getFailedCount()).isEqualTo(1);
+        assertThat(underTest.getLastFailure()).hasMessage("Bus error");
+        assertThat(underTest.getFlushedCount()).isEqualTo(1);
+        assertThat(underTest.getPublishedCount()).isEqualTo(2);
+        assertThat(underTest.getOccupancy()).isZero();
+        assertThat(transport.getDataCount()).isEqualTo(1024);
+        assertThat(transport.getRam()).isEqualTo(frame.getBuffer());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        underTest.stop();
+    }
+}
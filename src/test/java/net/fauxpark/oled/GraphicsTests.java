@@ -1,5 +1,9 @@
 package net.fauxpark.oled;
 
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
 import net.fauxpark.oled.font.CodePage437;
 import net.fauxpark.oled.font.Font;
 import org.junit.jupiter.api.AfterEach;
@@ -7,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
 
 import net.fauxpark.oled.transport.MockTransport;
 
@@ -105,6 +110,173 @@ public class GraphicsTests {
         assertThat(ssd1306.getBuffer()).isNotEqualTo(unfilledRectBuffer);
     }
 
+    @Test
+    public void givenUnalignedRectangles_whenFilled_thenMatchesPixelByPixel() {
+        int[][] rectangles = {
+            { 0, 0, 128, 64 }, { 3, 5, 10, 2 }, { 10, 6, 20, 20 }, { -5, -3, 12, 12 },
+            { 120, 60, 20, 20 }, { 0, 8, 128, 8 }, { 7, 15, 1, 1 }, { 50, 1, 30, 62 }
+        };
+
+        for(int[] r : rectangles) {
+            // given
+            ssd1306.clear();
+            byte[] expected = ssd1306.getBuffer().clone();
+
+            for(int i = 0; i < r[2]; i++) {
+                for(int j = 0; j < r[3]; j++) {
+                    int x = r[0] + i;
+                    int y = r[1] + j;
+
+                    if(x >= 0 && x < 128 && y >= 0 && y < 64) {
+                        expected[x + (y / 8) * 128] |= (byte) (1 << (y & 7));
+                    }
+                }
+            }
+
+            // when
+            underTest.rectangle(r[0], r[1], r[2], r[3], true);
+
+            // then
+            assertThat(ssd1306.getBuffer()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void givenFilledDisplay_whenRegionCleared_thenOnlyRegionOff() {
+        // given
+        underTest.rectangle(0, 0, 128, 64, true);
+
+        // when
+        underTest.clear(10, 10, 20, 20);
+
+        // then
+        assertThat(ssd1306.getPixel(9, 10)).isTrue();
+        assertThat(ssd1306.getPixel(10, 9)).isTrue();
+        assertThat(ssd1306.getPixel(10, 10)).isFalse();
+        assertThat(ssd1306.getPixel(29, 29)).isFalse();
+        assertThat(ssd1306.getPixel(30, 29)).isTrue();
+        assertThat(ssd1306.getPixel(29, 30)).isTrue();
+    }
+
+    @Test
+    public void whenDrawSpans_thenPixelsOn() {
+        // when
+        underTest.horizontalLine(5, 12, 10);
+        underTest.verticalLine(40, 3, 30);
+
+        // then
+        assertThat(ssd1306.getPixel(4, 12)).isFalse();
+        assertThat(ssd1306.getPixel(5, 12)).isTrue();
+        assertThat(ssd1306.getPixel(14, 12)).isTrue();
+        assertThat(ssd1306.getPixel(15, 12)).isFalse();
+        assertThat(ssd1306.getPixel(40, 2)).isFalse();
+        assertThat(ssd1306.getPixel(40, 3)).isTrue();
+        assertThat(ssd1306.getPixel(40, 32)).isTrue();
+        assertThat(ssd1306.getPixel(40, 33)).isFalse();
+    }
+
+    @Test
+    public void whenDrawLine_thenEndpointsOnAndPixelsConnected() {
+        // when
+        underTest.line(5, 60, 100, 3);
+
+        // then
+        assertThat(ssd1306.getPixel(5, 60)).isTrue();
+        assertThat(ssd1306.getPixel(100, 3)).isTrue();
+
+        for(int x = 5; x <= 100; x++) {
+            boolean found = false;
+
+            for(int y = 0; y < 64; y++) {
+                found |= ssd1306.getPixel(x, y);
+            }
+
+            assertThat(found).isTrue();
+        }
+    }
+
+    @Test
+    public void whenDrawCircle_thenPixelsOnRadius() {
+        // given
+        int radius = 20;
+
+        // when
+        underTest.circle(63, 31, radius);
+
+        // then
+        assertThat(ssd1306.getPixel(63, 31 + radius)).isTrue();
+        assertThat(ssd1306.getPixel(63 + radius, 31)).isTrue();
+        assertThat(ssd1306.getPixel(63, 31)).isFalse();
+
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                if(ssd1306.getPixel(x, y)) {
+                    double distance = Math.hypot(x - 63, y - 31);
+                    assertThat(distance).isBetween(radius - 1.0, radius + 1.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenDrawFullArc_thenSameAsCircle() {
+        // given
+        underTest.circle(63, 31, 25);
+        byte[] circleBuffer = ssd1306.getBuffer().clone();
+        ssd1306.clear();
+
+        // when
+        underTest.arc(63, 31, 25, 0, 360);
+
+        // then
+        assertThat(ssd1306.getBuffer()).isEqualTo(circleBuffer);
+    }
+
+    @Test
+    public void whenDrawQuarterArc_thenOnlyLowerRightQuadrant() {
+        // when
+        underTest.arc(63, 31, 25, 0, 90);
+
+        // then
+        assertThat(ssd1306.getPixel(63, 56)).isTrue();
+        assertThat(ssd1306.getPixel(88, 31)).isTrue();
+
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                if(ssd1306.getPixel(x, y)) {
+                    assertThat(x).isGreaterThanOrEqualTo(63);
+                    assertThat(y).isGreaterThanOrEqualTo(31);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenDrawReflexArc_thenQuarterLeftOut() {
+        // when
+        underTest.arc(63, 31, 25, 0, 270);
+
+        // then
+        assertThat(ssd1306.getPixel(63, 56)).isTrue();
+        assertThat(ssd1306.getPixel(88, 31)).isTrue();
+        assertThat(ssd1306.getPixel(63, 6)).isTrue();
+        assertThat(ssd1306.getPixel(38, 31)).isTrue();
+        assertThat(ssd1306.getPixel(45, 49)).isFalse();
+        assertThat(ssd1306.getPixel(46, 49)).isFalse();
+    }
+
+    @Test
+    public void whenDrawFilledCircle_thenInteriorOn() {
+        // when
+        underTest.circle(63, 31, 10, true);
+
+        // then
+        assertThat(ssd1306.getPixel(63, 31)).isTrue();
+        assertThat(ssd1306.getPixel(70, 36)).isTrue();
+        assertThat(ssd1306.getPixel(63, 42)).isFalse();
+        assertThat(ssd1306.getPixel(71, 39)).isFalse();
+    }
+
     @Test
     public void whenDrawText_thenChangedBuffer() {
         // given
@@ -121,6 +293,460 @@ public class GraphicsTests {
         assertThat(ssd1306.getBuffer()).isNotEqualTo(initialBuffer);
     }
 
+    @Test
+    public void givenAlignedAndUnalignedPositions_whenDrawText_thenMatchesPixelByPixel() {
+        Font font = new CodePage437();
+        String text = "Hi \u00e9!";
+        int[][] positions = { { 0, 0 }, { 3, 8 }, { 10, 5 }, { -4, -3 }, { 100, 60 }, { 7, 31 } };
+
+        for(int[] position : positions) {
+            // given
+            ssd1306.clear();
+            underTest.rectangle(0, 0, 128, 64, true);
+            SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+            expected.setBuffer(ssd1306.getBuffer().clone());
+            byte[] bytes = text.getBytes(java.nio.charset.Charset.forName(font.getName()));
+            int x = position[0];
+
+            for(byte b : bytes) {
+                for(int col = 0; col < font.getColumns(); col++) {
+                    int mask = font.getGlyphData()[font.getGlyphOffset(b & 0xFF) + col] & 0xFF;
+
+                    for(int row = 0; row < font.getRows(); row++) {
+                        expected.setPixel(x, position[1] + row, (mask >> row & 1) == 1);
+                    }
+
+                    x++;
+                }
+
+                x++;
+            }
+
+            // when
+            underTest.text(position[0], position[1], font, text);
+
+            // then
+            assertThat(ssd1306.getBuffer()).isEqualTo(expected.getBuffer());
+        }
+    }
+
+    @Test
+    public void givenTallFont_whenDrawText_thenMatchesPixelByPixel() {
+        // given
+        int[] columns = new int[256 * 2];
+        columns[0x41 * 2] = 0x8001;
+        columns[0x41 * 2 + 1] = 0x0FF0;
+        Font font = new IntFont("US-ASCII", 2, 16, columns);
+        SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+
+        for(int col = 0; col < 2; col++) {
+            for(int row = 0; row < 16; row++) {
+                expected.setPixel(10 + col, 5 + row, (columns[0x41 * 2 + col] >> row & 1) == 1);
+            }
+        }
+
+        // when
+        underTest.text(10, 5, font, "A");
+
+        // then
+        assertThat(ssd1306.getBuffer()).isEqualTo(expected.getBuffer());
+    }
+
+    @Test
+    public void givenFontOverridingOnlyGetGlyphs_whenDrawText_thenMatchesPackedFont() {
+        // given
+        CodePage437 packed = new CodePage437();
+        @SuppressWarnings("deprecation")
+        Font legacy = new IntFont(packed.getName(), packed.getColumns(), packed.getRows(), packed.getGlyphs());
+        SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+        expected.getGraphics().text(3, 11, packed, "Legacy");
+
+        // when
+        underTest.text(3, 11, legacy, "Legacy");
+
+        // then
+        assertThat(ssd1306.getBuffer()).isEqualTo(expected.getBuffer());
+    }
+
+    @Test
+    public void givenTextCache_whenDrawTextTwice_thenMatchesUncached() {
+        Font font = new CodePage437();
+        String text = "CPU 42%";
+        int[][] positions = { { 0, 0 }, { 3, 8 }, { 10, 5 }, { -4, -3 }, { 100, 60 }, { 7, 31 } };
+        SSD1306 uncached = new SSD1306(128, 64, new MockTransport());
+        underTest.setTextCache(new TextCache(4096));
+
+        for(int[] position : positions) {
+            // given
+            ssd1306.clear();
+            underTest.rectangle(0, 0, 128, 64, true);
+            uncached.setBuffer(ssd1306.getBuffer().clone());
+            uncached.getGraphics().text(position[0], position[1], font, text);
+
+            // when
+            underTest.text(position[0], position[1], font, text);
+            underTest.text(position[0], position[1], font, text);
+
+            // then
+            assertThat(ssd1306.getBuffer()).isEqualTo(uncached.getBuffer());
+        }
+    }
+
+    @Test
+    public void givenTextCache_whenDrawSameTextAtSamePhase_thenCountsHit() {
+        // given
+        TextCache cache = new TextCache(4096);
+        underTest.setTextCache(cache);
+
+        // when
+        underTest.text(0, 0, new CodePage437(), "MEM");
+        underTest.text(40, 16, new CodePage437(), "MEM");
+        underTest.text(40, 20, new CodePage437(), "MEM");
+
+        // then
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getEntryCount()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void givenTextCache_whenAlternatingFonts_thenCountsHits() {
+        // given
+        TextCache cache = new TextCache(4096);
+        underTest.setTextCache(cache);
+        Font modern = new CodePage437();
+        Font legacy = new Font() {
+            @Override
+            public String getName() {
+                return modern.getName();
+            }
+
+            @Override
+            public int getColumns() {
+                return modern.getColumns();
+            }
+
+            @Override
+            public int getRows() {
+                return modern.getRows();
+            }
+
+            @Override
+            public int[] getGlyphs() {
+                byte[] data = modern.getGlyphData();
+                int[] glyphs = new int[data.length];
+
+                for(int i = 0; i < data.length; i++) {
+                    glyphs[i] = data[i] & 0xFF;
+                }
+
+                return glyphs;
+            }
+        };
+
+        // when
+        for(int i = 0; i < 3; i++) {
+            underTest.text(0, 0, legacy, "CPU");
+            underTest.text(0, 16, modern, "CPU");
+        }
+
+        // then
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(4);
+        assertThat(cache.getEntryCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFullTextCache_whenDrawNewText_thenEvictsLeastRecentlyUsed() {
+        // given
+        Font font = new CodePage437();
+        TextCache probe = new TextCache(4096);
+        underTest.setTextCache(probe);
+        underTest.text(0, 0, font, "A");
+        TextCache cache = new TextCache(probe.getSize() * 2);
+        underTest.setTextCache(cache);
+        underTest.text(0, 0, font, "A");
+        underTest.text(0, 0, font, "B");
+        underTest.text(0, 0, font, "A");
+
+        // when
+        underTest.text(0, 0, font, "C");
+        underTest.text(0, 0, font, "A");
+        underTest.text(0, 0, font, "B");
+
+        // then
+        assertThat(cache.getSize()).isLessThanOrEqualTo(cache.getCapacity());
+        assertThat(cache.getEntryCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void givenImageTypes_whenDrawImage_thenMatchesLuminanceThreshold() {
+        int[] types = {
+            BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_USHORT_GRAY
+        };
+
+        for(int type : types) {
+            // given
+            BufferedImage image = gradient(new BufferedImage(96, 40, type));
+            ssd1306.clear();
+            SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+            drawExpected(expected, image, 5, 3, 96, 40);
+
+            // when
+            underTest.image(image, 5, 3, 96, 40);
+
+            // then
+            assertThat(ssd1306.getBuffer()).as("image type %d", type).isEqualTo(expected.getBuffer());
+        }
+    }
+
+    @Test
+    public void givenScaledClippedSubimage_whenDrawImage_thenMatchesLuminanceThreshold() {
+        // given
+        BufferedImage image = gradient(new BufferedImage(200, 120, BufferedImage.TYPE_INT_RGB)).getSubimage(17, 9, 150, 100);
+        underTest.rectangle(0, 0, 128, 64, true);
+        SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+        expected.setBuffer(ssd1306.getBuffer().clone());
+        drawExpected(expected, image, -10, 20, 70, 50);
+
+        // when
+        underTest.image(image, -10, 20, 70, 50);
+
+        // then
+        assertThat(ssd1306.getBuffer()).isEqualTo(expected.getBuffer());
+    }
+
+    @Test
+    public void givenNoDither_whenDrawImage_thenMatchesThreshold() {
+        // given
+        BufferedImage image = gradient(new BufferedImage(128, 64, BufferedImage.TYPE_INT_RGB));
+        SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+        expected.getGraphics().image(image, 0, 0, 128, 64);
+
+        // when
+        underTest.image(image, 0, 0, 128, 64, Dither.NONE);
+
+        // then
+        assertThat(ssd1306.getBuffer()).isEqualTo(expected.getBuffer());
+    }
+
+    @Test
+    public void givenFlatGray_whenDrawDitheredImage_thenCoverageMatchesLuminance() {
+        for(Dither dither : Dither.values()) {
+            for(int gray : new int[] { 0, 64, 128, 192, 255 }) {
+                // given
+                BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_BYTE_GRAY);
+
+                for(int i = 0; i < 64; i++) {
+                    image.getRaster().setSamples(0, i, 64, 1, 0, filled(64, gray));
+                }
+
+                ssd1306.clear();
+
+                // when
+                underTest.image(image, 0, 0, 64, 64, dither);
+
+                // then
+                int on = 0;
+
+                for(int y = 0; y < 64; y++) {
+                    for(int x = 0; x < 64; x++) {
+                        on += ssd1306.getPixel(x, y) ? 1 : 0;
+                    }
+                }
+
+                double expected = dither == Dither.NONE ? (gray >= 128 ? 1 : 0) : gray / 255.0;
+                // Atkinson drops a quarter of the error, so it strays further in the shadows and highlights
+                double tolerance = dither == Dither.ATKINSON ? 0.1 : 0.05;
+                assertThat(on / 4096.0).as("%s at gray %d", dither, gray).isCloseTo(expected, offset(tolerance));
+            }
+        }
+    }
+
+    @Test
+    public void givenBayerDither_whenDrawImageAtDifferentPositions_thenPatternAnchoredToDisplay() {
+        // given
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_GRAY);
+
+        for(int i = 0; i < 16; i++) {
+            image.getRaster().setSamples(0, i, 16, 1, 0, filled(16, 100));
+        }
+
+        underTest.image(image, 0, 0, 16, 16, Dither.BAYER);
+        byte[] first = Arrays.copyOfRange(ssd1306.getBuffer(), 136, 144);
+
+        // when
+        underTest.image(image, 8, 8, 16, 16, Dither.BAYER);
+
+        // then
+        assertThat(Arrays.copyOfRange(ssd1306.getBuffer(), 136, 144)).isEqualTo(first);
+    }
+
+    @Test
+    public void givenBlitModes_whenDrawBitmap_thenMatchesPixelByPixel() {
+        Random random = new Random(18);
+        byte[] data = new byte[13 * 2];
+        byte[] mask = new byte[13 * 2];
+        random.nextBytes(data);
+        random.nextBytes(mask);
+        Bitmap masked = new Bitmap(13, 11, data, mask);
+        Bitmap unmasked = new Bitmap(16, 16, data.clone(), null);
+        int[][] positions = { { 0, 0 }, { 5, 3 }, { -4, -5 }, { 120, 60 }, { 10, 16 } };
+        byte[] background = new byte[1024];
+        random.nextBytes(background);
+
+        for(Bitmap bitmap : new Bitmap[] { masked, unmasked }) {
+            for(BlitMode mode : BlitMode.values()) {
+                for(int[] position : positions) {
+                    // given
+                    ssd1306.setBuffer(background.clone());
+                    SSD1306 expected = new SSD1306(128, 64, new MockTransport());
+                    expected.setBuffer(background.clone());
+
+                    for(int row = 0; row < bitmap.getHeight(); row++) {
+                        for(int col = 0; col < bitmap.getWidth(); col++) {
+                            int x = position[0] + col;
+                            int y = position[1] + row;
+                            boolean on = bitmap.getPixel(col, row);
+                            boolean current = expected.getPixel(x, y);
+                            boolean covered = bitmap.getMask() == null
+                                || (bitmap.getMask()[col + (row / 8) * bitmap.getWidth()] >> (row & 7) & 1) == 1;
+
+                            switch(mode) {
+                                case OR:
+                                    expected.setPixel(x, y, current || on);
+                                    break;
+                                case AND_NOT:
+                                    expected.setPixel(x, y, current && !on);
+                                    break;
+                                case XOR:
+                                    expected.setPixel(x, y, current ^ on);
+                                    break;
+                                case MASKED:
+                                    expected.setPixel(x, y, covered ? on : current);
+                                    break;
+                                default:
+                                    expected.setPixel(x, y, on);
+                                    break;
+                            }
+                        }
+                    }
+
+                    // when
+                    underTest.bitmap(bitmap, position[0], position[1], mode);
+
+                    // then
+                    assertThat(ssd1306.getBuffer()).as("%s at (%d,%d)", mode, position[0], position[1]).isEqualTo(expected.getBuffer());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void givenTranslucentImage_whenConvertToBitmap_thenMaskFollowsAlpha() {
+        // given
+        BufferedImage image = new BufferedImage(4, 10, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFFFFFFFF);
+        image.setRGB(1, 9, 0xFF000000);
+        image.setRGB(2, 5, 0x40FFFFFF);
+
+        // when
+        Bitmap bitmap = Bitmap.fromImage(image, Dither.NONE);
+
+        // then
+        assertThat(bitmap.getPixel(0, 0)).isTrue();
+        assertThat(bitmap.getPixel(1, 9)).isFalse();
+        assertThat(bitmap.getMask()).containsExactly(1, 0, 0, 0, 0, 2, 0, 0);
+    }
+
+    /**
+     * A font implemented the old way, overriding only {@link Font#getGlyphs()}.
+     */
+    private static class IntFont implements Font {
+        private final String name;
+
+        private final int columns;
+
+        private final int rows;
+
+        private final int[] glyphs;
+
+        IntFont(String name, int columns, int rows, int[] glyphs) {
+            this.name = name;
+            this.columns = columns;
+            this.rows = rows;
+            this.glyphs = glyphs;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getColumns() {
+            return columns;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public int[] getGlyphs() {
+            return glyphs;
+        }
+    }
+
+    /**
+     * Create an array filled with a value.
+     */
+    private static int[] filled(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+
+        return array;
+    }
+
+    /**
+     * Fill an image with a diagonal colour gradient.
+     */
+    private static BufferedImage gradient(BufferedImage image) {
+        for(int y = 0; y < image.getHeight(); y++) {
+            for(int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 5 & 0xFF) << 16 | (y * 7 & 0xFF) << 8 | ((x + y) * 3 & 0xFF));
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Draw an image pixel by pixel, sampling the nearest source pixel and thresholding its luminance.
+     * 8-bit gray samples are taken as the luminance as they are, without the gamma conversion done by getRGB().
+     */
+    private static void drawExpected(SSD1306 target, BufferedImage image, int x, int y, int width, int height) {
+        for(int row = 0; row < height; row++) {
+            for(int col = 0; col < width; col++) {
+                int sourceX = (2 * col + 1) * image.getWidth() / (2 * width);
+                int sourceY = (2 * row + 1) * image.getHeight() / (2 * height);
+                int argb = image.getRGB(sourceX, sourceY);
+                int luminance = ((argb >> 16 & 0xFF) * 77 + (argb >> 8 & 0xFF) * 150 + (argb & 0xFF) * 29) >> 8;
+
+                if(image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+                    luminance = image.getRaster().getSample(sourceX, sourceY, 0);
+                }
+
+                target.setPixel(x + col, y + row, luminance * (argb >>> 24) / 255 >= 128);
+            }
+        }
+    }
+
     @AfterEach
     public void tearDown() {
         ssd1306.shutdown();
@@ -0,0 +1,134 @@
+package net.fauxpark.oled;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.fauxpark.oled.transport.MockTransport;
+
+public class RefreshSchedulerTests {
+    private MockTransport transport;
+
+    private SSD1306 ssd1306;
+
+    private RefreshScheduler underTest;
+
+    @BeforeEach
+    void setUp() {
+        transport = new MockTransport();
+        ssd1306 = new SSD1306(128, 64, transport);
+        ssd1306.startup(false);
+        underTest = new RefreshScheduler(ssd1306, 30);
+    }
+
+    @Test
+    public void givenSeveralRequests_whenTicked_thenCoalescedIntoOneFrame() {
+        // given
+        ssd1306.setPixel(10, 10, true);
+        underTest.requestDisplay();
+        ssd1306.setPixel(20, 20, true);
+        underTest.requestDisplay();
+        ssd1306.setPixel(30, 30, true);
+        underTest.requestDisplay();
+
+        // when
+        underTest.tick(System.nanoTime());
+
+        // then
+        assertThat(underTest.getFrameCount()).isEqualTo(1);
+        assertThat(underTest.getDroppedFrameCount()).isEqualTo(2);
+        assertThat(transport.getRam()).isEqualTo(ssd1306.getBuffer());
+    }
+
+    @Test
+    public void givenNoRequests_whenTicked_thenNothingSent() {
+        // given
+        transport.resetCounters();
+
+        // when
+        underTest.tick(System.nanoTime());
+
+        // then
+        assertThat(underTest.getFrameCount()).isZero();
+        assertThat(transport.getTransferCount()).isZero();
+    }
+
+    @Test
+    public void givenFramesOverOneSecond_whenTicked_thenFrameRateMeasured() {
+        // given
+        long start = System.nanoTime();
+
+        // when
+        for(int i = 1; i <= 30; i++) {
+            underTest.requestDisplay();
+            underTest.tick(start + i * 1000000000L / 30);
+        }
+
+        // then
+        assertThat(underTest.getFrameRate()).isBetween(25.0, 31.0);
+    }
+
+    @Test
+    public void givenFailingTransport_whenTicked_thenFailureRecordedAndNotCounted() {
+        // given
+        SSD1306 failing = new SSD1306(128, 64, new MockTransport() {
+            @Override
+            public void data(byte[] data, int offset, int length) {
+                throw new IllegalStateException("Bus error");
+            }
+        });
+        underTest = new RefreshScheduler(failing, 30);
+        underTest.requestDisplay();
+
+        // when
+        underTest.tick(System.nanoTime());
+
+        // then
+        assertThat(underTest.getFrameCount()).isZero();
+        assertThat(underTest.getFailedFrameCount()).isEqualTo(1);
+        assertThat(underTest.getLastFailure()).hasMessage("Bus error");
+    }
+
+    @Test
+    public void givenIdleBeforeStart_whenStarted_thenIdleTimeNotMeasured() throws InterruptedException {
+        // given
+        Thread.sleep(300);
+
+        // when
+        underTest.start();
+        long started = System.nanoTime();
+        underTest.stop();
+        underTest.requestDisplay();
+        underTest.tick(started + 800000000L);
+
+        // then
+        assertThat(underTest.getFrameRate()).isZero();
+        assertThat(underTest.getFrameCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRunningScheduler_whenRequestedRepeatedly_thenFrameRateLimited() throws InterruptedException {
+        // given
+        underTest.start();
+
+        // when
+        for(int i = 0; i < 1000; i++) {
+            underTest.requestDisplay();
+        }
+
+        Thread.sleep(200);
+        underTest.stop();
+
+        // then
+        assertThat(underTest.getFrameCount()).isBetween(1L, 10L);
+        assertThat(underTest.getFrameCount() + underTest.getDroppedFrameCount()).isEqualTo(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        underTest.stop();
+        ssd1306.shutdown();
+    }
+}
@@ -1,22 +1,110 @@
 package net.fauxpark.oled;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import net.fauxpark.oled.transport.MockTransport;
 
 public class SSD1306Tests {
+    private MockTransport transport;
+
     private SSD1306 underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new SSD1306(128, 64, new MockTransport());
+        transport = new MockTransport();
+        underTest = new SSD1306(128, 64, transport);
         underTest.startup(false);
     }
 
+    @Test
+    public void whenStartup_thenCommandsBatched() {
+        // given
+        MockTransport transport = new MockTransport();
+        SSD1306 ssd1306 = new SSD1306(128, 64, transport);
+
+        // when
+        ssd1306.startup(false);
+
+        // then
+        // Two frames are sent during startup, each preceded by one batch of commands
+        assertThat(transport.getCommandCount()).isGreaterThanOrEqualTo(20);
+        assertThat(transport.getTransferCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void whenScrollDiagonally_thenSingleTransfer() {
+        // given
+        transport.resetCounters();
+
+        // when
+        underTest.scrollDiagonally(true, 0, 7, 0, 64, Constant.SCROLL_STEP_5, 1);
+
+        // then
+        assertThat(transport.getCommandCount()).isEqualTo(2);
+        assertThat(transport.getTransferCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenBatchOpen_whenOtherThreadDisplays_thenWaitsForBatch() throws InterruptedException {
+        // given
+        underTest.setPixel(3, 3, true);
+        transport.resetCounters();
+        Thread other = new Thread(() -> underTest.displayDirty());
+
+        // when
+        underTest.beginBatch();
+
+        try {
+            underTest.setContrast(40);
+            other.start();
+            other.join(100);
+
+            // then
+            assertThat(other.isAlive()).isTrue();
+            assertThat(transport.getDataCount()).isZero();
+        } finally {
+            underTest.endBatch();
+        }
+
+        other.join(1000);
+        assertThat(other.isAlive()).isFalse();
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenBatch_whenConfigured_thenSingleTransfer() {
+        // given
+        transport.resetCounters();
+
+        // when
+        underTest.beginBatch();
+
+        try {
+            underTest.setContrast(0x40);
+            underTest.setInverted(true);
+            underTest.setOffset(4);
+        } finally {
+            underTest.endBatch();
+        }
+
+        // then
+        assertThat(transport.getCommandCount()).isEqualTo(3);
+        assertThat(transport.getTransferCount()).isEqualTo(1);
+    }
+
     @Test
     public void whenInitialState_thenShouldMatch() {
         assertThat(underTest.isInitialised()).isTrue();
@@ -179,6 +267,102 @@ public class SSD1306Tests {
         assertThat(underTest.getPixel(onPixelX, onPixelY)).isFalse();
     }
 
+    @Test
+    public void givenBuffer_whenScreenCleared_thenSameBufferReused() {
+        // given
+        byte[] buffer = underTest.getBuffer();
+        underTest.setPixel(1, 1, true);
+
+        // when
+        underTest.clear();
+
+        // then
+        assertThat(underTest.getBuffer()).isSameAs(buffer);
+        assertThat(underTest.getPixel(1, 1)).isFalse();
+    }
+
+    @Test
+    public void givenPixelStates_whenRegionCleared_thenOnlyRegionChanged() {
+        // given
+        underTest.setPixel(0, 0, true);
+        underTest.setPixel(20, 20, true);
+        underTest.setPixel(40, 20, true);
+
+        // when
+        underTest.clear(10, 30, 1, 3);
+
+        // then
+        assertThat(underTest.getPixel(0, 0)).isTrue();
+        assertThat(underTest.getPixel(20, 20)).isFalse();
+        assertThat(underTest.getPixel(40, 20)).isTrue();
+    }
+
+    @Test
+    public void givenFilledBuffer_whenRegionOffDisplayCleared_thenUnchangedBuffer() {
+        // given
+        Arrays.fill(underTest.getBuffer(), (byte) 0xFF);
+        byte[] expected = underTest.getBuffer().clone();
+
+        // when
+        underTest.clear(200, 300, 0, 7);
+        underTest.clear(-10, -5, 0, 0);
+        underTest.clear(0, 10, 9, 12);
+        underTest.clear(0, 10, -3, -1);
+
+        // then
+        assertThat(underTest.getBuffer()).isEqualTo(expected);
+    }
+
+    @Test
+    public void givenRegionPartlyOffDisplay_whenCleared_thenOnlyVisiblePartChanged() {
+        // given
+        Arrays.fill(underTest.getBuffer(), (byte) 0xFF);
+
+        // when
+        underTest.clear(120, 300, 6, 12);
+
+        // then
+        assertThat(underTest.getPixel(119, 63)).isTrue();
+        assertThat(underTest.getPixel(120, 47)).isTrue();
+        assertThat(underTest.getPixel(120, 48)).isFalse();
+        assertThat(underTest.getPixel(127, 63)).isFalse();
+    }
+
+    @Test
+    public void givenRegionOffDisplay_whenMarkDirty_thenNotDirty() {
+        // given
+        underTest.displayDirty();
+
+        // when
+        underTest.markDirty(200, 300, 0, 7);
+        underTest.markDirty(-10, -5, 0, 0);
+        underTest.markDirty(0, 10, 9, 12);
+
+        // then
+        assertThat(underTest.isDirty()).isFalse();
+    }
+
+    @Test
+    public void whenScreenClearedRepeatedly_thenNoAllocation() {
+        // given
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int iterations = 10000;
+
+        // when
+        long before = threads.getThreadAllocatedBytes(thread);
+
+        for(int i = 0; i < iterations; i++) {
+            underTest.clear();
+        }
+
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // then
+        assertThat(allocated).isLessThan(underTest.getBuffer().length);
+    }
+
     @Test
     public void givenBrightnessLevel_whenSetBrightness_thenChangedBrightness() {
         // given
@@ -217,6 +401,367 @@ public class SSD1306Tests {
         assertThat(underTest.getContrast()).isEqualTo(clampedBrightnessLevel);
     }
 
+    @Test
+    public void givenSinglePixel_whenDisplayDirty_thenOnlyDirtyWindowSent() {
+        // given
+        int x = 10;
+        int y = 20;
+        underTest.setPixel(x, y, true);
+        transport.resetCounters();
+
+        // when
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getDataCount()).isEqualTo(1);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+        assertThat(underTest.isDirty()).isFalse();
+    }
+
+    @Test
+    public void givenPixelsInDistantCorners_whenDisplayDirty_thenSeparateWindowsSent() {
+        // given
+        underTest.setPixel(0, 0, true);
+        underTest.setPixel(127, 63, true);
+        transport.resetCounters();
+
+        // when
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getCommandCount()).isEqualTo(4);
+        assertThat(transport.getDataCount()).isEqualTo(2);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenPixelsInAdjacentPages_whenDisplayDirty_thenMergedWindowSent() {
+        // given
+        underTest.setPixel(10, 7, true);
+        underTest.setPixel(12, 8, true);
+        transport.resetCounters();
+
+        // when
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getCommandCount()).isEqualTo(2);
+        assertThat(transport.getDataCount()).isEqualTo(3 * 2);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenUnchangedBuffer_whenDisplayDirty_thenNothingSent() {
+        // given
+        transport.resetCounters();
+
+        // when
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getCommandCount()).isZero();
+        assertThat(transport.getDataCount()).isZero();
+    }
+
+    @Test
+    public void givenDirectBufferWrite_whenMarkDirty_thenRegionSent() {
+        // given
+        underTest.getBuffer()[3 * 128 + 64] = 0x55;
+        transport.resetCounters();
+
+        // when
+        underTest.markDirty(64, 64, 3, 3);
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getDataCount()).isEqualTo(1);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenSceneRedrawnIdentically_whenDisplayDirty_thenNothingSent() {
+        // given
+        underTest.setPixel(10, 10, true);
+        underTest.setPixel(100, 50, true);
+        underTest.displayDirty();
+        transport.resetCounters();
+
+        // when
+        underTest.clear();
+        underTest.setPixel(10, 10, true);
+        underTest.setPixel(100, 50, true);
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getDataCount()).isZero();
+        assertThat(underTest.isDirty()).isFalse();
+    }
+
+    @Test
+    public void givenSceneRedrawnWithOneChange_whenDisplayDirty_thenOnlyChangedByteSent() {
+        // given
+        underTest.setPixel(10, 10, true);
+        underTest.setPixel(100, 50, true);
+        underTest.displayDirty();
+        transport.resetCounters();
+
+        // when
+        underTest.clear();
+        underTest.setPixel(10, 10, true);
+        underTest.setPixel(101, 50, true);
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getDataCount()).isEqualTo(2);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenScrolled_whenScrollStoppedAndDisplayDirty_thenBufferResent() {
+        // given
+        underTest.setPixel(10, 10, true);
+        underTest.displayDirty();
+        underTest.startScroll();
+        underTest.stopScroll();
+        transport.resetCounters();
+
+        // when
+        underTest.markDirty(0, 127, 0, 7);
+        underTest.displayDirty();
+
+        // then
+        assertThat(transport.getDataCount()).isEqualTo(128 * 8);
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenScrolled_whenScrollStopped_thenDirty() {
+        // given
+        underTest.displayDirty();
+        underTest.startScroll();
+
+        // when
+        underTest.stopScroll();
+
+        // then
+        assertThat(underTest.isDirty()).isTrue();
+    }
+
+    @Test
+    public void givenAsyncPipeline_whenPresented_thenFrameSent() {
+        // given
+        underTest.startAsync();
+        underTest.setPixel(10, 10, true);
+        underTest.setPixel(100, 50, true);
+
+        // when
+        underTest.present();
+        underTest.setPixel(20, 20, true);
+        underTest.present();
+        underTest.stopAsync();
+
+        // then
+        assertThat(underTest.isAsync()).isFalse();
+        assertThat(underTest.isDirty()).isFalse();
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenAsyncPipeline_whenPresented_thenBufferUnchanged() {
+        // given
+        underTest.startAsync();
+        underTest.setPixel(10, 10, true);
+        byte[] buffer = underTest.getBuffer();
+
+        // when
+        underTest.present();
+
+        // then
+        assertThat(underTest.getBuffer()).isSameAs(buffer);
+        assertThat(underTest.getPixel(10, 10)).isTrue();
+    }
+
+    @Test
+    public void givenFailingTransport_whenAsyncStopped_thenFailureReported() {
+        // given
+        AtomicBoolean failing = new AtomicBoolean(true);
+        MockTransport failingTransport = new MockTransport() {
+            @Override
+            public void data(byte[] data, int offset, int length) {
+                if(failing.get()) {
+                    throw new IllegalStateException("Bus error");
+                }
+
+                super.data(data, offset, length);
+            }
+        };
+        SSD1306 ssd1306 = new SSD1306(128, 64, failingTransport);
+        ssd1306.startAsync();
+        ssd1306.setPixel(10, 10, true);
+        ssd1306.present();
+
+        // when
+        Throwable thrown = catchThrowable(ssd1306::stopAsync);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasRootCauseMessage("Bus error");
+        assertThat(ssd1306.isAsync()).isFalse();
+
+        failing.set(false);
+        ssd1306.displayDirty();
+        assertThat(failingTransport.getRam()).isEqualTo(ssd1306.getBuffer());
+    }
+
+    @Test
+    public void givenConcurrentStartAsync_whenStopped_thenNoFlusherLeft() throws InterruptedException {
+        // given
+        Thread[] starters = new Thread[8];
+
+        for(int i = 0; i < starters.length; i++) {
+            starters[i] = new Thread(underTest::startAsync);
+        }
+
+        for(Thread starter : starters) {
+            starter.start();
+        }
+
+        for(Thread starter : starters) {
+            starter.join();
+        }
+
+        // when
+        underTest.stopAsync();
+
+        // then
+        assertThat(Thread.getAllStackTraces().keySet()).noneMatch(thread -> thread.getName().equals("SSD1306 flusher"));
+    }
+
+    @Test
+    public void givenPageLocking_whenPageLocked_thenOnlyWritersToThatPageWait() throws InterruptedException {
+        // given
+        underTest.setPageLocking(true);
+        Thread samePage = new Thread(() -> underTest.setPixel(5, 3, true));
+        Thread otherPage = new Thread(() -> underTest.setPixel(5, 30, true));
+
+        // when
+        underTest.lockPages(0, 0);
+
+        try {
+            samePage.start();
+            otherPage.start();
+            otherPage.join(1000);
+            samePage.join(100);
+
+            // then
+            assertThat(otherPage.isAlive()).isFalse();
+            assertThat(samePage.isAlive()).isTrue();
+        } finally {
+            underTest.unlockPages(0, 0);
+        }
+
+        samePage.join(1000);
+        assertThat(samePage.isAlive()).isFalse();
+        assertThat(underTest.getPixel(5, 3)).isTrue();
+        assertThat(underTest.getPixel(5, 30)).isTrue();
+    }
+
+    @Test
+    public void givenPageLocked_whenDisplayed_thenIllegalState() {
+        // given
+        underTest.setPageLocking(true);
+        underTest.setPixel(5, 30, true);
+
+        // when
+        underTest.lockPages(3, 4);
+
+        try {
+            // then
+            assertThatThrownBy(() -> underTest.display()).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> underTest.displayDirty()).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> underTest.setHFlipped(true)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            underTest.unlockPages(3, 4);
+        }
+
+        underTest.displayDirty();
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+    }
+
+    @Test
+    public void givenPageLocking_whenDrawingWhileDisplaying_thenFramesNeverTorn() throws InterruptedException {
+        // given
+        underTest.setPageLocking(true);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            Graphics graphics = underTest.createGraphics();
+
+            while(running.get()) {
+                graphics.rectangle(0, 4, 32, 16, true);
+                graphics.clear(0, 4, 32, 16);
+            }
+        });
+        writer.start();
+
+        try {
+            for(int frame = 0; frame < 2000; frame++) {
+                // when
+                underTest.displayDirty();
+
+                // then
+                // The rectangle covers the bottom of page 0, all of page 1 and the top of page 2
+                byte[] ram = transport.getRam();
+                boolean on = (ram[0] & 0xF0) == 0xF0;
+
+                for(int x = 0; x < 32; x++) {
+                    assertThat(ram[x] & 0xF0).isEqualTo(on ? 0xF0 : 0);
+                    assertThat(ram[128 + x] & 0xFF).isEqualTo(on ? 0xFF : 0);
+                    assertThat(ram[256 + x] & 0x0F).isEqualTo(on ? 0x0F : 0);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void givenPageLocking_whenDrawingInParallel_thenEveryOperationLands() throws InterruptedException {
+        // given
+        underTest.setPageLocking(true);
+        List<Thread> writers = new ArrayList<>();
+
+        for(int page = 0; page < 8; page++) {
+            int y = page * 8;
+            writers.add(new Thread(() -> {
+                Graphics graphics = underTest.createGraphics();
+
+                for(int x = 0; x < 128; x++) {
+                    graphics.verticalLine(x, y + (x & 7), 1);
+                    underTest.displayDirty();
+                }
+            }));
+        }
+
+        // when
+        writers.forEach(Thread::start);
+
+        for(Thread writer : writers) {
+            writer.join();
+        }
+
+        underTest.displayDirty();
+
+        // then
+        for(int page = 0; page < 8; page++) {
+            for(int x = 0; x < 128; x++) {
+                assertThat(underTest.getBuffer()[page * 128 + x] & 0xFF).isEqualTo(1 << (x & 7));
+            }
+        }
+
+        assertThat(transport.getRam()).isEqualTo(underTest.getBuffer());
+        assertThat(underTest.isDirty()).isFalse();
+    }
+
     @AfterEach
     public void tearDown() {
         underTest.shutdown();
@@ -0,0 +1,223 @@
+package net.fauxpark.oled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.fauxpark.oled.transport.MockTransport;
+
+public class VirtualCanvasTests {
+    @Test
+    public void givenGridOfTiles_whenDisplay_thenEachTileShowsItsRegion() {
+        // given
+        VirtualCanvas underTest = new VirtualCanvas(256, 128);
+        List<SSD1306> panels = grid(underTest, new ArrayList<>());
+        Graphics graphics = underTest.getGraphics();
+        graphics.line(0, 0, 255, 127);
+        graphics.rectangle(100, 40, 60, 50, false);
+        graphics.circle(128, 64, 20);
+
+        // when
+        underTest.display();
+
+        // then
+        for(int i = 0; i < panels.size(); i++) {
+            SSD1306 panel = panels.get(i);
+            int offsetX = (i % 2) * 128;
+            int offsetY = (i / 2) * 64;
+
+            for(int y = 0; y < 64; y++) {
+                for(int x = 0; x < 128; x++) {
+                    assertThat(panel.getPixel(x, y)).isEqualTo(underTest.getPixel(offsetX + x, offsetY + y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void givenChangeInOneTile_whenDisplay_thenOnlyThatTileSent() {
+        // given
+        VirtualCanvas underTest = new VirtualCanvas(256, 128);
+        List<MockTransport> transports = new ArrayList<>();
+        List<SSD1306> panels = grid(underTest, transports);
+        underTest.display();
+        transports.forEach(MockTransport::resetCounters);
+        underTest.getGraphics().rectangle(140, 70, 20, 10, true);
+
+        // when
+        underTest.display();
+
+        // then
+        assertThat(transports.get(0).getTransferCount()).isZero();
+        assertThat(transports.get(1).getTransferCount()).isZero();
+        assertThat(transports.get(2).getTransferCount()).isZero();
+        assertThat(transports.get(3).getTransferCount()).isPositive();
+        assertThat(transports.get(3).getRam()).isEqualTo(panels.get(3).getBuffer());
+        assertThat(panels.get(3).getPixel(12, 6)).isTrue();
+    }
+
+    @Test
+    public void givenNoChanges_whenUpdate_thenNoTilesChanged() {
+        // given
+        VirtualCanvas underTest = new VirtualCanvas(256, 128);
+        grid(underTest, new ArrayList<>());
+        underTest.update();
+
+        // when
+        List<SSD1306> changed = underTest.update();
+
+        // then
+        assertThat(changed).isEmpty();
+    }
+
+    @Test
+    public void givenOrientations_whenUpdate_thenPixelsMappedOntoPanel() {
+        for(Orientation orientation : Orientation.values()) {
+            // given
+            VirtualCanvas underTest = new VirtualCanvas(128, 128);
+            SSD1306 panel = new SSD1306(128, 64, new MockTransport());
+            underTest.addTile(panel, 0, 0, orientation);
+            underTest.setPixel(3, 10, true);
+
+            // when
+            underTest.update();
+
+            // then
+            int[] expected = expected(orientation, 3, 10);
+            assertThat(count(panel)).as(orientation.name()).isEqualTo(1);
+            assertThat(panel.getPixel(expected[0], expected[1])).as(orientation.name()).isTrue();
+        }
+    }
+
+    @Test
+    public void givenOrientations_whenDrawing_thenMatchesPixelMapping() {
+        for(Orientation orientation : Orientation.values()) {
+            // given
+            VirtualCanvas underTest = new VirtualCanvas(64, 128);
+            SSD1306 panel = new SSD1306(128, 64, new MockTransport());
+            underTest.addTile(panel, 0, 0, orientation);
+            int width = orientation.isSideways() ? 64 : 128;
+            int height = orientation.isSideways() ? 128 : 64;
+            underTest.getGraphics().circle(20, 30, 15);
+            underTest.getGraphics().line(0, 3, 63, 60);
+
+            // when
+            underTest.update();
+
+            // then
+            for(int v = 0; v < height; v++) {
+                for(int u = 0; u < width; u++) {
+                    int[] expected = expected(orientation, u, v);
+                    assertThat(panel.getPixel(expected[0], expected[1])).as(orientation.name()).isEqualTo(underTest.getPixel(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void givenTileNotOnPageBoundary_whenUpdate_thenPixelsShifted() {
+        // given
+        VirtualCanvas underTest = new VirtualCanvas(128, 80);
+        SSD1306 panel = new SSD1306(128, 64, new MockTransport());
+        underTest.addTile(panel, 0, 5, Orientation.NORMAL);
+        underTest.getGraphics().line(0, 0, 127, 79);
+
+        // when
+        underTest.update();
+
+        // then
+        for(int y = 0; y < 64; y++) {
+            for(int x = 0; x < 128; x++) {
+                assertThat(panel.getPixel(x, y)).isEqualTo(underTest.getPixel(x, y + 5));
+            }
+        }
+    }
+
+    @Test
+    public void givenTilePageLocked_whenUpdate_thenWaitsForLock() throws InterruptedException {
+        // given
+        VirtualCanvas underTest = new VirtualCanvas(256, 128);
+        List<SSD1306> panels = grid(underTest, new ArrayList<>());
+        SSD1306 panel = panels.get(0);
+        panel.setPageLocking(true);
+        underTest.setPixel(5, 3, true);
+        Thread updater = new Thread(underTest::update);
+
+        // when
+        panel.lockPages(0, 0);
+
+        try {
+            updater.start();
+            updater.join(100);
+
+            // then
+            assertThat(updater.isAlive()).isTrue();
+            assertThat(panel.getPixel(5, 3)).isFalse();
+        } finally {
+            panel.unlockPages(0, 0);
+        }
+
+        updater.join(1000);
+        assertThat(updater.isAlive()).isFalse();
+        assertThat(panel.getPixel(5, 3)).isTrue();
+    }
+
+    /**
+     * Add a 2x2 grid of 128x64 tiles to a canvas.
+     *
+     * @param canvas The canvas to add the tiles to.
+     * @param transports Receives the transport of each tile.
+     *
+     * @return The display of each tile, left to right and top to bottom.
+     */
+    private static List<SSD1306> grid(VirtualCanvas canvas, List<MockTransport> transports) {
+        List<SSD1306> panels = new ArrayList<>();
+
+        for(int i = 0; i < 4; i++) {
+            MockTransport transport = new MockTransport();
+            SSD1306 panel = new SSD1306(128, 64, transport);
+            panel.startup(false);
+            canvas.addTile(panel, (i % 2) * 128, (i / 2) * 64, Orientation.NORMAL);
+            transports.add(transport);
+            panels.add(panel);
+        }
+
+        return panels;
+    }
+
+    /**
+     * Map a position on a tile to a 128x64 panel.
+     */
+    private static int[] expected(Orientation orientation, int u, int v) {
+        switch(orientation) {
+            case ROTATE_90:
+                return new int[] { v, 63 - u };
+            case ROTATE_180:
+                return new int[] { 127 - u, 63 - v };
+            case ROTATE_270:
+                return new int[] { 127 - v, u };
+            case FLIP_HORIZONTAL:
+                return new int[] { 127 - u, v };
+            case FLIP_VERTICAL:
+                return new int[] { u, 63 - v };
+            default:
+                return new int[] { u, v };
+        }
+    }
+
+    /**
+     * Count the pixels that are on.
+     */
+    private static int count(SSD1306 panel) {
+        int count = 0;
+
+        for(byte b : panel.getBuffer()) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+
+        return count;
+    }
+}
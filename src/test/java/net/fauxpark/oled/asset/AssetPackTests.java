@@ -0,0 +1,171 @@
+package net.fauxpark.oled.asset;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import net.fauxpark.oled.Bitmap;
+import net.fauxpark.oled.Dither;
+import net.fauxpark.oled.font.CodePage437;
+import net.fauxpark.oled.font.Font;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AssetPackTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenBitmapsAndFont_whenWriteAndOpenPack_thenAssetsRoundTrip() throws IOException {
+        // given
+        Random random = new Random(19);
+        byte[] data = new byte[20 * 2];
+        byte[] mask = new byte[20 * 2];
+        random.nextBytes(data);
+        random.nextBytes(mask);
+        Bitmap plain = new Bitmap(20, 13, data, null);
+        Bitmap masked = new Bitmap(20, 13, data, mask);
+        Font font = new CodePage437();
+        Path path = directory.resolve("assets.pack");
+
+        // when
+        new AssetPackWriter().addBitmap("plain", plain).addBitmap("masked", masked).addFont("cp437", font).write(path);
+
+        // then
+        try(AssetPack pack = AssetPack.open(path)) {
+            assertThat(pack.getNames()).containsExactly("plain", "masked", "cp437");
+            assertThat(pack.getBitmap("plain").getData()).isEqualTo(data);
+            assertThat(pack.getBitmap("plain").getMask()).isNull();
+            assertThat(pack.getBitmap("masked").getMask()).isEqualTo(mask);
+            assertThat(pack.getBitmap("masked").getHeight()).isEqualTo(13);
+            assertThat(pack.getFont("cp437").getName()).isEqualTo(font.getName());
+            assertThat(pack.getFont("cp437").getColumns()).isEqualTo(font.getColumns());
+            assertThat(pack.getFont("cp437").getRows()).isEqualTo(font.getRows());
+            assertThat(pack.getFont("cp437").getGlyphData()).isEqualTo(font.getGlyphData());
+            assertThat(pack.getBitmap("cp437")).isNull();
+            assertThat(pack.getFont("missing")).isNull();
+        }
+    }
+
+    @Test
+    public void givenFontSheet_whenAddFontSheet_thenGlyphColumnsReadFromCells() throws IOException {
+        // given
+        BufferedImage sheet = new BufferedImage(16 * 3, 16 * 10, BufferedImage.TYPE_INT_RGB);
+        // Glyph 0x41 is in row 4, column 1 of the sheet
+        sheet.setRGB(1 * 3, 4 * 10, 0xFFFFFF);
+        sheet.setRGB(1 * 3 + 2, 4 * 10 + 9, 0xFFFFFF);
+        Path path = directory.resolve("font.pack");
+
+        // when
+        new AssetPackWriter().addFontSheet("tall", sheet, "US-ASCII", 3, 10).write(path);
+
+        // then
+        try(AssetPack pack = AssetPack.open(path)) {
+            Font font = pack.getFont("tall");
+            byte[] glyphs = font.getGlyphData();
+            int offset = font.getGlyphOffset(0x41);
+            assertThat(glyphs).hasSize(256 * 3 * 2);
+            assertThat(Arrays.copyOfRange(glyphs, offset, offset + 6)).containsExactly(0x01, 0, 0, 0, 0, 0x02);
+        }
+    }
+
+    @Test
+    public void givenImageWithAlpha_whenAddImage_thenMaskStored() throws IOException {
+        // given
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(3, 3, 0xFFFFFFFF);
+        Path path = directory.resolve("icons.pack");
+
+        // when
+        new AssetPackWriter().addImage("dot", image, Dither.NONE).write(path);
+
+        // then
+        try(AssetPack pack = AssetPack.open(path)) {
+            Bitmap dot = pack.getBitmap("dot");
+            assertThat(dot.getPixel(3, 3)).isTrue();
+            assertThat(dot.getMask()[3]).isEqualTo((byte) 0x08);
+        }
+    }
+
+    @Test
+    public void givenOtherFile_whenOpenPack_thenThrows() throws IOException {
+        // given
+        Path path = directory.resolve("image.png");
+        Files.write(path, new byte[] { (byte) 0x89, 'P', 'N', 'G', 0, 0, 0, 0 });
+
+        // when / then
+        assertThatThrownBy(() -> AssetPack.open(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void givenTruncatedPack_whenOpenPack_thenThrows() throws IOException {
+        // given
+        Path path = directory.resolve("truncated.pack");
+        new AssetPackWriter().addBitmap("icon", new Bitmap(32, 32)).write(path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // when / then
+        assertThatThrownBy(() -> AssetPack.open(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void givenTruncatedFontData_whenOpenPack_thenThrows() throws IOException {
+        // given
+        Path path = directory.resolve("font.pack");
+        new AssetPackWriter().addFont("cp437", new CodePage437()).write(path);
+        byte[] bytes = Files.readAllBytes(path);
+        // The data length of the only entry is the last field of the table, just before the glyph data
+        int lengthOffset = bytes.length - 256 * 5 - 4;
+        ByteBuffer.wrap(bytes).putInt(lengthOffset, 256 * 5 - 1);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // when / then
+        assertThatThrownBy(() -> AssetPack.open(path)).isInstanceOf(IOException.class).hasMessageContaining("glyph data");
+    }
+
+    @Test
+    public void givenFontWithoutAllGlyphs_whenAddFont_thenThrows() {
+        // given
+        Font font = new Font() {
+            @Override
+            public String getName() {
+                return "US-ASCII";
+            }
+
+            @Override
+            public int getColumns() {
+                return 5;
+            }
+
+            @Override
+            public int getRows() {
+                return 8;
+            }
+
+            @Override
+            public byte[] getGlyphData() {
+                return new byte[128 * 5];
+            }
+        };
+
+        // when / then
+        assertThatThrownBy(() -> new AssetPackWriter().addFont("half", font)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void givenBitmapWiderThan16Bits_whenWrite_thenThrows() {
+        // given
+        AssetPackWriter writer = new AssetPackWriter().addBitmap("wide", new Bitmap(70000, 1));
+
+        // when / then
+        assertThatThrownBy(() -> writer.write(directory.resolve("wide.pack"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,132 @@
+package net.fauxpark.oled.font;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FontTests {
+    @Test
+    public void givenCodePages_whenGetGlyphData_thenOneBytePerColumn() {
+        for(Font font : new Font[] { new CodePage437(), new CodePage850(), new CodePage1252() }) {
+            // when
+            byte[] data = font.getGlyphData();
+
+            // then
+            assertThat(font.getBytesPerColumn()).isEqualTo(1);
+            assertThat(data).hasSize(256 * font.getColumns());
+            assertThat(font.getGlyphData()).isSameAs(data);
+        }
+    }
+
+    @Test
+    public void givenGlyphData_whenGetGlyphOffset_thenPointsAtGlyph() {
+        // given
+        Font font = new CodePage437();
+
+        // when
+        int offset = font.getGlyphOffset('A');
+
+        // then
+        assertThat(offset).isEqualTo('A' * 5);
+        assertThat(font.getGlyphData()[offset] & 0xFF).isEqualTo(0x7E);
+        assertThat(font.getGlyphData()[offset + 1] & 0xFF).isEqualTo(0x09);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void givenTallColumns_whenPackAndUnpack_thenRoundTrips() {
+        // given
+        int[] columns = { 0x0001, 0x8000, 0x1234, 0xFFFF };
+        byte[] packed = Font.pack(columns, 16);
+        Font font = new Font() {
+            @Override
+            public String getName() {
+                return "US-ASCII";
+            }
+
+            @Override
+            public int getColumns() {
+                return 2;
+            }
+
+            @Override
+            public int getRows() {
+                return 16;
+            }
+
+            @Override
+            public byte[] getGlyphData() {
+                return packed;
+            }
+        };
+
+        // when
+        int[] unpacked = font.getGlyphs();
+
+        // then
+        assertThat(packed).containsExactly(0x01, 0x00, 0x00, 0x80, 0x34, 0x12, 0xFF, 0xFF);
+        assertThat(unpacked).containsExactly(columns);
+        assertThat(font.getGlyphOffset(1)).isEqualTo(4);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void givenLegacyFont_whenGetGlyphData_thenPacksGlyphs() {
+        // given
+        int[] columns = { 0x01, 0x80, 0x3C };
+        Font font = new Font() {
+            @Override
+            public String getName() {
+                return "US-ASCII";
+            }
+
+            @Override
+            public int getColumns() {
+                return 3;
+            }
+
+            @Override
+            public int getRows() {
+                return 8;
+            }
+
+            @Override
+            public int[] getGlyphs() {
+                return columns;
+            }
+        };
+
+        // when
+        byte[] data = font.getGlyphData();
+
+        // then
+        assertThat(data).containsExactly(0x01, 0x80, 0x3C);
+        assertThat(font.getGlyphs()).isSameAs(columns);
+    }
+
+    @Test
+    public void givenFontOverridingNeither_whenGetGlyphData_thenUnsupported() {
+        // given
+        Font font = new Font() {
+            @Override
+            public String getName() {
+                return "US-ASCII";
+            }
+
+            @Override
+            public int getColumns() {
+                return 5;
+            }
+
+            @Override
+            public int getRows() {
+                return 8;
+            }
+        };
+
+        // when / then
+        assertThatThrownBy(font::getGlyphData).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(font::getGlyphData).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package net.fauxpark.oled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.fauxpark.oled.transport.MockTransport;
+
+/**
+ * These tests only run with the java21 profile, which limits virtual threads to a single carrier thread.
+ * If sending to a display pinned its virtual thread, the displays would be sent one after another.
+ */
+public class VirtualThreadTests {
+    private static final int PANELS = 64;
+
+    private static final long LATENCY_MILLIS = 20;
+
+    private final List<MockTransport> transports = new ArrayList<>();
+
+    private final List<SSD1306> displays = new ArrayList<>();
+
+    private DisplayManager underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new DisplayManager(Thread.ofVirtual().factory());
+
+        for(int i = 0; i < PANELS; i++) {
+            MockTransport transport = new MockTransport();
+            SSD1306 ssd1306 = new SSD1306(128, 64, transport);
+            transports.add(transport);
+            displays.add(ssd1306);
+            underTest.add("bus-" + i, ssd1306);
+        }
+
+        underTest.startupAll(false);
+
+        for(MockTransport transport : transports) {
+            transport.setLatency(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void givenVirtualBusThreads_whenDisplayAll_thenTransfersOverlap() {
+        // given
+        for(int i = 0; i < PANELS; i++) {
+            displays.get(i).setPixel(i, i % 64, true);
+        }
+
+        // when
+        long start = System.nanoTime();
+        underTest.displayAll();
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        // then
+        // Each display needs an address batch and a data transfer; sent one after another, this would take over 2.5 seconds
+        assertThat(elapsed).isLessThan(LATENCY_MILLIS * 2 * PANELS / 4);
+
+        for(int i = 0; i < PANELS; i++) {
+            assertThat(transports.get(i).getRam()).isEqualTo(displays.get(i).getBuffer());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for(MockTransport transport : transports) {
+            transport.setLatency(0, TimeUnit.MILLISECONDS);
+        }
+
+        underTest.shutdownAll();
+    }
+}